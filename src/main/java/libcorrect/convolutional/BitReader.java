@@ -6,7 +6,19 @@
 
 package libcorrect.convolutional;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// reads packed bits, most significant bit of every byte first
+// bits are buffered in a 64 bit accumulator that is refilled a whole word at a time
 public class BitReader {
+    // the most bits a single call may ask for: a refill always leaves at least 57 bits
+    public static final int MAX_BITS = 57;
+
+    private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
 
     private static final byte[] reverseTable_U = createReverseTable();
 
@@ -14,18 +26,26 @@ public class BitReader {
         byte[] rT_U = new byte[256];
         for(int i = 0; i < 256; i++) {
             rT_U[i] =
-        (byte)((i & 0x80) >> 7 | (i & 0x40) >> 5 | (i & 0x20) >> 3 | 
-               (i & 0x10) >> 1 | (i & 0x08) << 1 | (i & 0x04) << 3 | 
+        (byte)((i & 0x80) >> 7 | (i & 0x40) >> 5 | (i & 0x20) >> 3 |
+               (i & 0x10) >> 1 | (i & 0x08) << 1 | (i & 0x04) << 3 |
                (i & 0x02) << 5 | (i & 0x01) << 7);
         }
         return rT_U;
     }
 
-    byte currentByte_U;
-    long byteIndex_U;
-    long len_U;
-    long currentByteLen_U;
-    byte[] bytes_U;
+    // buffered bits, the next one to read is bit count - 1
+    private long acc_U;
+    private int count_U;
+    // next byte to load into the accumulator, relative to the start of the input
+    private int byteIndex_U;
+    private int len_U;
+    private byte[] bytes_U;
+    private ByteBuffer buffer;
+    private int bufferOffset;
+
+    // unattached, reconfigure before use
+    public BitReader() {
+    }
 
     public BitReader(byte[] bytes_U, long len_U) {
         if(bytes_U != null) {
@@ -33,31 +53,91 @@ public class BitReader {
         }
     }
 
+    /**
+     * Reads from a ByteBuffer, from its position up to len bytes, without moving the position
+     */
+    public BitReader(ByteBuffer buffer, long len_U) {
+        reconfigure(buffer, len_U);
+    }
+
     public void reconfigure(byte[] bytes_U, long len_U) {
         this.bytes_U = bytes_U;
-        this.len_U = len_U;
-        this.currentByteLen_U = 8;
-        this.currentByte_U=bytes_U[0];
-        this.byteIndex_U=0;
+        this.buffer = null;
+        this.len_U = Math.toIntExact(len_U);
+        reset();
     }
 
-    public byte read(int n_U) {
-        int read_U = 0;
-        int nCopy_U = n_U;
-
-        if(Long.compareUnsigned(this.currentByteLen_U, Integer.toUnsignedLong(n_U)) < 0) {
-            read_U = Byte.toUnsignedInt(this.currentByte_U) & (1 << this.currentByteLen_U) - 1;
-            this.byteIndex_U++;
-            this.currentByte_U = this.bytes_U[(int)this.byteIndex_U];
-            n_U = (int)(Integer.toUnsignedLong(n_U) - this.currentByteLen_U);
-            this.currentByteLen_U=8;
-            read_U <<= n_U;
+    public void reconfigure(ByteBuffer buffer, long len_U) {
+        this.bytes_U = null;
+        this.buffer = buffer;
+        this.bufferOffset = buffer.position();
+        this.len_U = Math.toIntExact(len_U);
+        reset();
+    }
+
+    private void reset() {
+        this.acc_U = 0;
+        this.count_U = 0;
+        this.byteIndex_U = 0;
+    }
+
+    // top the accumulator up to at least 57 bits, past the end of the input reads zeros
+    private void refill() {
+        int load_U = (Long.SIZE - count_U) >>> 3;
+        if (byteIndex_U + Long.BYTES <= len_U) {
+            long word_U = bytes_U != null ?
+                    (long) ARRAY_LONG.get(bytes_U, byteIndex_U) :
+                    (long) BUFFER_LONG.get(buffer, bufferOffset + byteIndex_U);
+            acc_U = load_U == Long.BYTES ? word_U : acc_U << 8 * load_U | word_U >>> Long.SIZE - 8 * load_U;
+        } else {
+            for (int i = 0; i < load_U; i++) {
+                int index_U = byteIndex_U + i;
+                int b_U = index_U >= len_U ? 0 :
+                        bytes_U != null ? bytes_U[index_U] : buffer.get(bufferOffset + index_U);
+                acc_U = acc_U << 8 | b_U & 0xff;
+            }
         }
+        byteIndex_U += load_U;
+        count_U += 8 * load_U;
+    }
+
+    /**
+     * Reads n bits, the first one read ends up in the most significant position
+     * @param n_U  number of bits, at most MAX_BITS
+     */
+    public long readBits(int n_U) {
+        if (count_U < n_U) {
+            refill();
+        }
+        count_U -= n_U;
+        return acc_U >>> count_U & (1L << n_U) - 1;
+    }
 
-        byte copyMask_U = (byte)((1 << n_U) - 1);
-        copyMask_U = (byte)(Byte.toUnsignedInt(copyMask_U) << this.currentByteLen_U - Integer.toUnsignedLong(n_U));
-        read_U |= (Byte.toUnsignedInt(this.currentByte_U) & Byte.toUnsignedInt(copyMask_U)) >> this.currentByteLen_U - Integer.toUnsignedLong(n_U);
-        this.currentByteLen_U = this.currentByteLen_U - Integer.toUnsignedLong(n_U);
-        return (byte)(Byte.toUnsignedInt(reverseTable_U[read_U]) >>> 8 - nCopy_U);
+    /**
+     * Reads n bits, at most 8, the first one read ends up in the least significant position
+     */
+    public byte read(int n_U) {
+        return (byte)(Byte.toUnsignedInt(reverseTable_U[(int) readBits(n_U)]) >>> 8 - n_U);
+    }
+
+    /**
+     * Reads count symbols of rate bits each, like calling read(rate) count times
+     * @param symbols_U  receives the symbols, the first bit of each in its least significant position
+     * @param count_U    number of symbols
+     * @param rate_U     bits per symbol, at most 8
+     */
+    public void readSymbols(int[] symbols_U, int count_U, int rate_U) {
+        int perRead_U = MAX_BITS / rate_U;
+        int shift_U = 8 - rate_U;
+        int mask_U = (1 << rate_U) - 1;
+        int i = 0;
+        while (i < count_U) {
+            int n_U = Math.min(perRead_U, count_U - i);
+            long bits_U = readBits(n_U * rate_U);
+            for (int j = n_U - 1; j >= 0; j--) {
+                int symbol_U = (int) (bits_U >>> j * rate_U) & mask_U;
+                symbols_U[i++] = Byte.toUnsignedInt(reverseTable_U[symbol_U]) >>> shift_U;
+            }
+        }
     }
 }
@@ -0,0 +1,245 @@
+/*
+ * libcorrect4j
+ * BitSlicedDecoder.java
+ */
+
+package libcorrect.convolutional;
+
+import java.util.Arrays;
+
+/**
+ * Hard decision Viterbi decoder that runs up to 64 frames of the same code at once.
+ * Every bit position of a long belongs to a different frame ("lane"), path and branch
+ * metrics are stored as bit planes and the add-compare-select step is carried out with
+ * ripple adders built from long bitwise operations.
+ * The trellis is the same as the one of Convolutional.decode, including the tie
+ * breaking. Decisions are kept for the whole frame and traced back once from the
+ * terminated state, where Convolutional traces back in windows from the best state, so
+ * both return the same message unless survivors fail to merge within the window.
+ */
+public class BitSlicedDecoder {
+    public final static int LANES = Long.SIZE;
+
+    private final int[] table_U;                /* size 2**order */
+    private final int rate_U;
+    private final int order_U;
+    private final int numstates_U;              /* 2**(order - 1), the register minus its oldest bit */
+    // path metrics only need to be known modulo 2**metricBits: the spread between any two
+    //  states is at most rate * (order - 1), one more branch on top of that is still below
+    //  2**(metricBits - 1), so the sign of a modular difference orders two candidates
+    private final int metricBits;
+    // enough bits to count rate mismatches
+    private final int branchBits;
+
+    // bit planes, metricBits per state
+    private long[] readMetrics;
+    private long[] writeMetrics;
+    // bit planes, branchBits per output symbol
+    private final long[] branchMetrics;
+    private final long[] lowCandidate;
+    private final long[] highCandidate;
+    // received bit planes, one per encoded bit
+    private long[] received_U = new long[0];
+    // one decision word per state and time slice, bit set where the high predecessor won
+    private long[][] decisions_U = new long[0][];
+
+    /**
+     * Bit-sliced decoder constructor, takes the same code description as Convolutional
+     * @param r    inverted rate
+     * @param o    order
+     * @param p    polynomials
+     * @throws IllegalArgumentException if requested decoder cannot be created
+     */
+    public BitSlicedDecoder(int r, int o, short[] p) throws IllegalArgumentException {
+        if (o < 2 || o > Short.SIZE) {
+            throw new IllegalArgumentException("BitSlicedDecoder: order must be between 2 and 16");
+        }
+        if (r < 2 || r > Byte.SIZE) {
+            throw new IllegalArgumentException("BitSlicedDecoder: rate must be between 2 and 8");
+        }
+        rate_U = r;
+        order_U = o;
+        numstates_U = 1 << (o - 1);
+        table_U = new int[1 << o];
+        for (int i = 0; i < table_U.length; i++) {
+            int out_U = 0;
+            for (int j = 0; j < r; j++) {
+                out_U |= (Integer.bitCount(i & Short.toUnsignedInt(p[j])) & 1) << j;
+            }
+            table_U[i] = out_U;
+        }
+
+        metricBits = 33 - Integer.numberOfLeadingZeros(r * o);
+        branchBits = 32 - Integer.numberOfLeadingZeros(r);
+        readMetrics = new long[numstates_U * metricBits];
+        writeMetrics = new long[numstates_U * metricBits];
+        branchMetrics = new long[(1 << r) * branchBits];
+        lowCandidate = new long[metricBits];
+        highCandidate = new long[metricBits];
+    }
+
+    public long encodeLen(long msgLen) {
+        long msgbits = 8 * msgLen;
+        return rate_U * (msgbits + order_U + 1);
+    }
+
+    /**
+     * Decode a batch of hard decision frames that all have the same length. Frames are
+     * decoded 64 at a time, so batches of a multiple of 64 frames use the decoder best.
+     * @param encoded         frames produced by Convolutional.encode
+     * @param numEncodedBits  length of every frame in *bits*, a multiple of the inv_rate
+     * @return  decoded messages, in the order of encoded
+     * @throws IllegalArgumentException
+     */
+    public byte[][] decode(byte[][] encoded, long numEncodedBits) throws IllegalArgumentException {
+        if (Long.remainderUnsigned(numEncodedBits, rate_U) != 0) {
+            throw new IllegalArgumentException("BitSlicedDecoder: encoded length of message must be a multiple of rate");
+        }
+        int sets_U = (int) (numEncodedBits / rate_U);
+        if (sets_U < 2 * (order_U - 1)) {
+            throw new IllegalArgumentException("BitSlicedDecoder: encoded message is shorter than the code warmup and tail");
+        }
+        int numEncodedBytes = (int) ((numEncodedBits + 7) / 8);
+        for (byte[] frame : encoded) {
+            if (frame.length < numEncodedBytes) {
+                throw new IllegalArgumentException("BitSlicedDecoder: frame is shorter than numEncodedBits");
+            }
+        }
+
+        // the first order - 1 slices only warm up the metrics, every slice after that
+        //  holds one decoded bit. like Convolutional, only full bytes are returned
+        int slices_U = sets_U - (order_U - 1);
+        if (received_U.length < (int) numEncodedBits) {
+            received_U = new long[(int) numEncodedBits];
+        }
+        if (decisions_U.length < slices_U) {
+            decisions_U = new long[slices_U][numstates_U];
+        }
+
+        byte[][] decoded = new byte[encoded.length][];
+        for (int first = 0; first < encoded.length; first += LANES) {
+            int lanes = Math.min(LANES, encoded.length - first);
+            transpose(encoded, first, lanes, (int) numEncodedBits);
+            decodeWarmup();
+            for (int i = order_U - 1; i < sets_U; i++) {
+                decodeSlice(i, decisions_U[i - (order_U - 1)]);
+            }
+            for (int lane = 0; lane < lanes; lane++) {
+                decoded[first + lane] = traceback(lane, slices_U);
+            }
+        }
+        return decoded;
+    }
+
+    // spread the frames over the lanes: plane i holds encoded bit i of every frame
+    private void transpose(byte[][] encoded, int first, int lanes, int numEncodedBits) {
+        Arrays.fill(received_U, 0, numEncodedBits, 0L);
+        for (int lane = 0; lane < lanes; lane++) {
+            byte[] frame = encoded[first + lane];
+            for (int i = 0; i < numEncodedBits; i++) {
+                received_U[i] |= (long) (frame[i >>> 3] >>> (7 - (i & 7)) & 1) << lane;
+            }
+        }
+    }
+
+    // count, for every output symbol, how many of the received bits of slice i it disagrees with
+    private void fillBranchMetrics(int i) {
+        for (int out_U = 0; out_U < 1 << rate_U; out_U++) {
+            int base = out_U * branchBits;
+            for (int k = 0; k < branchBits; k++) {
+                branchMetrics[base + k] = 0;
+            }
+            for (int j = 0; j < rate_U; j++) {
+                // bit j of a symbol is the j-th encoded bit of the slice
+                long carry = received_U[i * rate_U + j] ^ ((out_U >>> j & 1) != 0 ? -1L : 0L);
+                for (int k = 0; k < branchBits && carry != 0; k++) {
+                    long sum = branchMetrics[base + k];
+                    branchMetrics[base + k] = sum ^ carry;
+                    carry &= sum;
+                }
+            }
+        }
+    }
+
+    // out = metric of state + branch metric of symbol, modulo 2**metricBits
+    private void addBranch(long[] metrics, int state_U, int out_U, long[] candidate) {
+        int m = state_U * metricBits;
+        int b = out_U * branchBits;
+        long carry = 0;
+        for (int k = 0; k < metricBits; k++) {
+            long x = metrics[m + k];
+            long y = k < branchBits ? branchMetrics[b + k] : 0L;
+            long xy = x ^ y;
+            candidate[k] = xy ^ carry;
+            carry = x & y | carry & xy;
+        }
+    }
+
+    private void decodeWarmup() {
+        // load the shift register up from 0, like Convolutional.decodeWarmup
+        //  after slice i only the states below 2**(i + 1) are reachable
+        Arrays.fill(readMetrics, 0L);
+        for (int i = 0; i < order_U - 1; i++) {
+            fillBranchMetrics(i);
+            for (int j = 0; j < 1 << i + 1; j++) {
+                addBranch(readMetrics, j >>> 1, table_U[j], lowCandidate);
+                System.arraycopy(lowCandidate, 0, writeMetrics, j * metricBits, metricBits);
+            }
+            swap();
+        }
+    }
+
+    private void decodeSlice(int i, long[] decisions) {
+        fillBranchMetrics(i);
+        int highbit_U = numstates_U;
+        int highbase_U = highbit_U >>> 1;
+        for (int successor_U = 0; successor_U < numstates_U; successor_U++) {
+            // the register is the successor plus the bit that gets shifted out,
+            //  the predecessor is the register without its newest bit
+            int low_U = successor_U;
+            int high_U = successor_U | highbit_U;
+            addBranch(readMetrics, low_U >>> 1, table_U[low_U], lowCandidate);
+            addBranch(readMetrics, (low_U >>> 1) | highbase_U, table_U[high_U], highCandidate);
+
+            // sign of high - low: set where the high path is strictly better, ties go low
+            long carry = -1L;
+            long difference = 0;
+            for (int k = 0; k < metricBits; k++) {
+                long x = highCandidate[k];
+                long y = ~lowCandidate[k];
+                long xy = x ^ y;
+                difference = xy ^ carry;
+                carry = x & y | carry & xy;
+            }
+            long highWins = difference;
+
+            int m = successor_U * metricBits;
+            for (int k = 0; k < metricBits; k++) {
+                writeMetrics[m + k] = lowCandidate[k] ^ (lowCandidate[k] ^ highCandidate[k]) & highWins;
+            }
+            decisions[successor_U] = highWins;
+        }
+        swap();
+    }
+
+    private void swap() {
+        long[] tmp = readMetrics;
+        readMetrics = writeMetrics;
+        writeMetrics = tmp;
+    }
+
+    // follow one lane back from state 0, the terminated end of the frame
+    private byte[] traceback(int lane, int slices_U) {
+        byte[] msg = new byte[slices_U / 8];
+        int highbase_U = numstates_U >>> 1;
+        int state_U = 0;
+        for (int t = slices_U - 1; t >= 0; t--) {
+            int bit_U = (int) (decisions_U[t][state_U] >>> lane) & 1;
+            if (t < msg.length * 8 && bit_U != 0) {
+                msg[t >>> 3] |= (byte) (0x80 >>> (t & 7));
+            }
+            state_U = state_U >>> 1 | (bit_U != 0 ? highbase_U : 0);
+        }
+        return msg;
+    }
+}
@@ -1,17 +1,39 @@
 /*
  * libcorrect4j
- * BitReader.java
+ * BitWriter.java
  * Created from src/correct/convolutional/bit.c @ https://github.com/quiet/libcorrect
  */
 
 package libcorrect.convolutional;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// writes packed bits, most significant bit of every byte first
+// bits are collected in a 64 bit accumulator and stored a whole word at a time, bytes
+// past the ones written keep their contents
 public class BitWriter {
-    private byte currentByte_U;
-    private int currentByteLen_U;
-    private byte[] bytes_U;
+    // the most bits a single call may write: after a flush at most 7 bits are pending
+    public static final int MAX_BITS = 57;
+
+    private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    // pending bits, the oldest one is bit count - 1
+    private long acc_U;
+    private int count_U;
+    // bytes stored so far, relative to the start of the output
     private int byteIndex_U;
-    private long len_U;
+    private int len_U;
+    private byte[] bytes_U;
+    private ByteBuffer buffer;
+    private int bufferOffset;
+
+    // unattached, reconfigure before use
+    public BitWriter() {
+    }
 
     public BitWriter(byte[] bytes_U, long len_U) {
         if (bytes_U != null) {
@@ -19,165 +41,140 @@ public class BitWriter {
         }
     }
 
+    /**
+     * Writes to a ByteBuffer, from its position up to len bytes, without moving the position
+     */
+    public BitWriter(ByteBuffer buffer, long len_U) {
+        reconfigure(buffer, len_U);
+    }
+
     public void reconfigure(byte[] bytes_U, long len_U) {
         this.bytes_U = bytes_U;
-        this.len_U = len_U;
-
-        currentByte_U = 0;
-        currentByteLen_U = 0;
-        byteIndex_U = 0;
+        this.buffer = null;
+        this.len_U = Math.toIntExact(len_U);
+        reset();
     }
 
-    public void write(byte val_U, int n_U) {
-        for (long j = 0; Long.compareUnsigned(j, Integer.toUnsignedLong(n_U)) < 0; j++) {
-            write1(val_U);
-            val_U = (byte) (Byte.toUnsignedInt(val_U) >> 1);
-        }
+    public void reconfigure(ByteBuffer buffer, long len_U) {
+        this.bytes_U = null;
+        this.buffer = buffer;
+        this.bufferOffset = buffer.position();
+        this.len_U = Math.toIntExact(len_U);
+        reset();
     }
 
-    public void write1(byte val_U) {
-        currentByte_U = (byte) (Byte.toUnsignedInt((byte) (Byte.toUnsignedInt(currentByte_U) | Byte.toUnsignedInt(val_U) & 1)));
-        if (++currentByteLen_U == 8) {
-            // 8 bits in a byte -- move to the next byte
-            bytes_U[byteIndex_U++] = currentByte_U;
-            currentByteLen_U = 0;
-            currentByte_U = 0;
-        } else {
-            currentByte_U = (byte) (Byte.toUnsignedInt(currentByte_U) << 1);
-        }
+    private void reset() {
+        acc_U = 0;
+        count_U = 0;
+        byteIndex_U = 0;
     }
 
-    public void writeBitlist(byte[] l_U, long len_U) {
-        int lIndex = 0;
-        // first close the current byte
-        // we might have been given too few elements to do that. be careful.
-        long closeLen_U = Integer.toUnsignedLong(8 - this.currentByteLen_U);
-        closeLen_U = Long.compareUnsigned(closeLen_U, len_U) < 0 ? closeLen_U : len_U;
-
-        short b_U = (short) Byte.toUnsignedInt(this.currentByte_U);
-
-        for (long i = 0; Long.compareUnsigned(i, closeLen_U) < 0; i++) {
-            b_U = (short) (Short.toUnsignedInt(b_U) | Byte.toUnsignedInt(l_U[lIndex + ((int) i)]));
-            b_U = (short) (Short.toUnsignedInt(b_U) << 1);
-        }
-
-
-        lIndex += (int) closeLen_U;
-        len_U -= closeLen_U;
-
-        byte[] bytes_U = this.bytes_U;
-        int byteIndex_U = this.byteIndex_U;
-
-        if (Integer.toUnsignedLong(this.currentByteLen_U) + closeLen_U == 8) {
-            b_U = (short) (Short.toUnsignedInt(b_U) >> 1);
-            bytes_U[(int) byteIndex_U] = (byte) b_U;
-            byteIndex_U++;
-        } else {
-            this.currentByte_U = (byte) b_U;
-            this.currentByteLen_U = (int) (Integer.toUnsignedLong(this.currentByteLen_U) + closeLen_U);
+    // store every complete byte of the accumulator, leaving at most 7 bits pending
+    private void flush() {
+        int full_U = count_U >>> 3;
+        if (full_U == 0) {
             return;
         }
-
-        long fullBytes_U = Long.divideUnsigned(len_U, 8);
-
-        for (long i_U = 0; Long.compareUnsigned(i_U, fullBytes_U) < 0; i_U++) {
-            bytes_U[(int) byteIndex_U] = (byte) (Byte.toUnsignedInt(l_U[lIndex]) << 7 |
-                    Byte.toUnsignedInt(l_U[lIndex + 1]) << 6 |
-                    Byte.toUnsignedInt(l_U[lIndex + 2]) << 5 |
-                    Byte.toUnsignedInt(l_U[lIndex + 3]) << 4 |
-                    Byte.toUnsignedInt(l_U[lIndex + 4]) << 3 |
-                    Byte.toUnsignedInt(l_U[lIndex + 5]) << 2 |
-                    Byte.toUnsignedInt(l_U[lIndex + 6]) << 1 |
-                    Byte.toUnsignedInt(l_U[lIndex + 7]));
-            byteIndex_U += 1;
-            lIndex += 8;
+        if (byteIndex_U + Long.BYTES <= len_U) {
+            // only the complete bytes are replaced, the ones after them keep their contents
+            long keep_U = full_U == Long.BYTES ? 0 : -1L >>> 8 * full_U;
+            long word_U = acc_U << Long.SIZE - count_U & ~keep_U;
+            if (bytes_U != null) {
+                long old_U = (long) ARRAY_LONG.get(bytes_U, byteIndex_U);
+                ARRAY_LONG.set(bytes_U, byteIndex_U, word_U | old_U & keep_U);
+            } else {
+                long old_U = (long) BUFFER_LONG.get(buffer, bufferOffset + byteIndex_U);
+                BUFFER_LONG.set(buffer, bufferOffset + byteIndex_U, word_U | old_U & keep_U);
+            }
+        } else {
+            for (int i = 0; i < full_U; i++) {
+                byte b_U = (byte) (acc_U >>> count_U - 8 * (i + 1));
+                if (bytes_U != null) {
+                    bytes_U[byteIndex_U + i] = b_U;
+                } else {
+                    buffer.put(bufferOffset + byteIndex_U + i, b_U);
+                }
+            }
         }
+        byteIndex_U += full_U;
+        count_U -= 8 * full_U;
+    }
 
-        len_U -= 8 * fullBytes_U;
-
-        b_U = 0;
-        for (long i = 0; Long.compareUnsigned(i, len_U) < 0; i++) {
-            b_U = (short) (Short.toUnsignedInt(b_U) | Byte.toUnsignedInt(l_U[lIndex + ((int) i)]));
-            b_U = (short) (Short.toUnsignedInt(b_U) << 1);
+    /**
+     * Writes the n least significant bits of val, the most significant of them first
+     * @param n_U  number of bits, at most MAX_BITS
+     */
+    public void writeBits(long val_U, int n_U) {
+        if (count_U + n_U > Long.SIZE) {
+            flush();
         }
-
-        this.currentByte_U = (byte) b_U;
-        this.byteIndex_U = byteIndex_U;
-        this.currentByteLen_U = (int) len_U;
+        acc_U = acc_U << n_U | val_U & (1L << n_U) - 1;
+        count_U += n_U;
     }
 
-    public void writeBitlistReversed(byte[] l_U, long len_U) {
-        int lIndex = 0;
-        lIndex += (int) (len_U - 1);
-
-        byte[] bytes_U = this.bytes_U;
-        int byteIndex_U = this.byteIndex_U;
-        short b_U;
-
-        if (this.currentByteLen_U != 0) {
-            long closeLen_U = Integer.toUnsignedLong(8 - this.currentByteLen_U);
-            closeLen_U = Long.compareUnsigned(closeLen_U, len_U) < 0 ? closeLen_U : len_U;
-
-            b_U = (short) Byte.toUnsignedInt(this.currentByte_U);
-
-            for (long i = 0; Long.compareUnsigned(i, closeLen_U) < 0; i++) {
-                b_U = (short) (Short.toUnsignedInt(b_U) | Byte.toUnsignedInt(l_U[lIndex]));
-                b_U = (short) (Short.toUnsignedInt(b_U) << 1);
-                lIndex--;
-            }
+    /**
+     * Writes the n least significant bits of val, at most 8, the least significant first
+     */
+    public void write(byte val_U, int n_U) {
+        writeBits(Integer.reverse(val_U) >>> Integer.SIZE - n_U, n_U);
+    }
 
-            len_U -= closeLen_U;
+    public void write1(byte val_U) {
+        writeBits(val_U, 1);
+    }
 
-            if (Integer.toUnsignedLong(this.currentByteLen_U) + closeLen_U == 8) {
-                b_U = (short) (Short.toUnsignedInt(b_U) >> 1);
-                bytes_U[(int) byteIndex_U] = (byte) b_U;
-                byteIndex_U++;
-            } else {
-                this.currentByte_U = (byte) b_U;
-                this.currentByteLen_U = (int) (Integer.toUnsignedLong(this.currentByteLen_U) + closeLen_U);
-                return;
+    /**
+     * Writes a list of bits, one per byte, in list order
+     */
+    public void writeBitlist(byte[] l_U, long len_U) {
+        int i = 0;
+        while (i < len_U) {
+            int n_U = (int) Math.min(MAX_BITS, len_U - i);
+            long bits_U = 0;
+            for (int end = i + n_U; i < end; i++) {
+                bits_U = bits_U << 1 | l_U[i] & 1;
             }
+            writeBits(bits_U, n_U);
         }
+    }
 
-        long fullBytes_U = Long.divideUnsigned(len_U, 8);
-
-        for (long i = 0; Long.compareUnsigned(i, fullBytes_U) < 0; i++) {
-            bytes_U[(int) byteIndex_U] = (byte) (Byte.toUnsignedInt(l_U[lIndex]) << 7 |
-                    Byte.toUnsignedInt(l_U[lIndex - 1]) << 6 |
-                    Byte.toUnsignedInt(l_U[lIndex - 2]) << 5 |
-                    Byte.toUnsignedInt(l_U[lIndex - 3]) << 4 |
-                    Byte.toUnsignedInt(l_U[lIndex - 4]) << 3 |
-                    Byte.toUnsignedInt(l_U[lIndex - 5]) << 2 |
-                    Byte.toUnsignedInt(l_U[lIndex - 6]) << 1 |
-                    Byte.toUnsignedInt(l_U[lIndex - 7]));
-            byteIndex_U += 1;
-            lIndex += -8;
-        }
-
-        len_U -= 8 * fullBytes_U;
-
-        b_U = 0;
-        for (long i = 0; Long.compareUnsigned(i, len_U) < 0; i++) {
-            b_U = (short) (Short.toUnsignedInt(b_U) | Byte.toUnsignedInt(l_U[lIndex]));
-            b_U = (short) (Short.toUnsignedInt(b_U) << 1);
-            lIndex--;
+    /**
+     * Writes a list of bits, one per byte, last element first
+     */
+    public void writeBitlistReversed(byte[] l_U, long len_U) {
+        int i = Math.toIntExact(len_U) - 1;
+        while (i >= 0) {
+            int n_U = Math.min(MAX_BITS, i + 1);
+            long bits_U = 0;
+            for (int end = i - n_U; i > end; i--) {
+                bits_U = bits_U << 1 | l_U[i] & 1;
+            }
+            writeBits(bits_U, n_U);
         }
-
-        this.currentByte_U = (byte) b_U;
-        this.byteIndex_U = byteIndex_U;
-        this.currentByteLen_U = (int) len_U;
     }
 
+    /**
+     * Stores everything written so far, a partial last byte is filled up with 0s
+     */
     public void flushByte() {
-        if (currentByteLen_U != 0) {
-            currentByte_U = (byte) (Byte.toUnsignedInt(this.currentByte_U) << 8 - this.currentByteLen_U);
-            bytes_U[byteIndex_U] = currentByte_U;
+        flush();
+        if (count_U != 0) {
+            byte b_U = (byte) (acc_U << 8 - count_U);
+            if (bytes_U != null) {
+                bytes_U[byteIndex_U] = b_U;
+            } else {
+                buffer.put(bufferOffset + byteIndex_U, b_U);
+            }
             byteIndex_U++;
-            currentByteLen_U = 0;
+            count_U = 0;
         }
     }
 
+    /**
+     * @return number of complete bytes written, they are all stored when this returns
+     */
     public int length() {
+        flush();
         return byteIndex_U;
     }
 }
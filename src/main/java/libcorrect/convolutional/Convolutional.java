@@ -29,6 +29,9 @@ public class Convolutional {
     public final static int CORRECT_SOFT_LINEAR = 0;
     public final static int CORRECT_SOFT_QUADRATIC = CORRECT_SOFT_LINEAR + 1;
 
+    public final static int CORRECT_SURVIVOR_TRACEBACK = 0;
+    public final static int CORRECT_SURVIVOR_REGISTER_EXCHANGE = CORRECT_SURVIVOR_TRACEBACK + 1;
+
     // Maximum of unsigned integral types.
     private final static int UINT8_MAX = 255;
     private final static int UINT16_MAX = 65_535;
@@ -48,7 +51,16 @@ public class Convolutional {
     private PairLookup pairLookup;
     private int softMeasurement;
     private HistoryBuffer historyBuffer;
+    private RegisterExchangeBuffer registerExchange;
+    // whichever of the two the current decode runs on
+    private SurvivorBuffer survivors;
     private ErrorBuffer errorBuffer;
+    // hard decision input, one rate-bit symbol per time slice
+    private int[] symbols_U = new int[0];
+    private boolean lowLatency;
+    private int survivorManagement = CORRECT_SURVIVOR_TRACEBACK;
+    // observes the path metric growth during a decode, see Synchronizer
+    private MetricCheckpoint metricCheckpoint;
 
     /**
      * Convolutional encoder/decoder constructor
@@ -81,10 +93,38 @@ public class Convolutional {
         table_U = new int[1 << o];
         fillTable(rate_U, order_U, p);
 
-        bitWriter = new BitWriter(null, 0);
-        bitReader = new BitReader(null, 0);
+        bitWriter = new BitWriter();
+        bitReader = new BitReader();
+
+        hasInitDecode = false;
+    }
+
+    /**
+     * Creates a decoder for the same code as another instance. The output table is
+     * never modified after construction and is shared with the original, decoder state
+     * is not, so the copy can decode in another thread.
+     * @param code  instance whose code, survivor management and latency mode are used
+     */
+    public Convolutional(Convolutional code) {
+        order_U = code.order_U;
+        rate_U = code.rate_U;
+        numstates_U = code.numstates_U;
+        table_U = code.table_U;
+
+        bitWriter = new BitWriter();
+        bitReader = new BitReader();
 
         hasInitDecode = false;
+        lowLatency = code.lowLatency;
+        survivorManagement = code.survivorManagement;
+    }
+
+    public int getRate() {
+        return rate_U;
+    }
+
+    public int getOrder() {
+        return order_U;
     }
 
     /**
@@ -105,6 +145,9 @@ public class Convolutional {
 
     /**
      * Encode a block of data
+     * Encoding keeps all of its state in local variables and only reads the output
+     * table, which never changes after construction, so one instance may encode from
+     * any number of threads at once, also while it is decoding.
      * @param msg   a message to encode
      * @return      encoded message
      */
@@ -132,21 +175,36 @@ public class Convolutional {
                         Long.divideUnsigned(encodedLenBits, 8) + 1 :
                         Long.divideUnsigned(encodedLenBits, 8));
         byte[] encoded = new byte[encodedLen];
-        bitWriter.reconfigure(encoded, encodedLen);
-        bitReader.reconfigure(msg, msgLen);
-
-        for (long i = 0; Long.compareUnsigned(i, 8 * msgLen) < 0; i++) {
-            // shiftregister has oldest bits on left, newest on right
-            shiftregister_U <<= 1;
-            shiftregister_U |= bitReader.read(1);
-            shiftregister_U &= shiftmask_U;
-            // shift most significant bit from byte and move down one bit at a time
-
-            // we do direct lookup of our convolutional output here
-            // all of the bits from this convolution are stored in this row
-            int out_U = table_U[shiftregister_U];
-            bitWriter.write((byte) out_U, rate_U);
+        // call-local cursors, the bitWriter and bitReader fields belong to the decoder
+        BitWriter bitWriter = new BitWriter(encoded, encodedLen);
+        BitReader bitReader = new BitReader(msg, msgLen);
+
+        // output symbols are collected and handed to the writer in batches of up to
+        //     MAX_BITS bits, the first polynomial's bit of every symbol goes out first
+        int symbolsPerWrite_U = BitWriter.MAX_BITS / rate_U;
+        long pending_U = 0;
+        int numPending_U = 0;
+        for (int i = 0; i < msgLen; i++) {
+            int byte_U = (int) bitReader.readBits(8);
+            for (int j = 7; j >= 0; j--) {
+                // shiftregister has oldest bits on left, newest on right
+                // shift most significant bit from byte and move down one bit at a time
+                shiftregister_U <<= 1;
+                shiftregister_U |= byte_U >>> j & 1;
+                shiftregister_U &= shiftmask_U;
+
+                // we do direct lookup of our convolutional output here
+                // all of the bits from this convolution are stored in this row
+                int out_U = table_U[shiftregister_U];
+                pending_U = pending_U << rate_U | Integer.reverse(out_U) >>> Integer.SIZE - rate_U;
+                if (++numPending_U == symbolsPerWrite_U) {
+                    bitWriter.writeBits(pending_U, numPending_U * rate_U);
+                    pending_U = 0;
+                    numPending_U = 0;
+                }
+            }
         }
+        bitWriter.writeBits(pending_U, numPending_U * rate_U);
         // now flush the shiftregister
         // this is simply running the loop as above but without any new inputs
         // or rather, the new input string is all 0s
@@ -207,11 +265,166 @@ public class Convolutional {
 
         long numEncodedBytes = Long.remainderUnsigned(numEncodedBits, 8) != 0 ? Long.divideUnsigned(numEncodedBits, 8) + 1 :
                 Long.divideUnsigned(numEncodedBits, 8);
-        bitReader.reconfigure(encoded, numEncodedBytes);
+        bitReader.reconfigure(encoded, (int) numEncodedBytes);
 
         return _decode(numEncodedBits, numEncodedBytes, null);
     }
 
+    /**
+     * decodeSoftSova works like decodeSoft and additionally reports how reliable
+     * every decoded bit is (soft output Viterbi). The reliability of a bit is the smallest
+     * path metric difference among the discarded paths that would have decoded it
+     * differently, so it is in the same units as the soft distance: 0 means a coin toss,
+     * 65535 means no competing path disagreed on this bit.
+     * The decoded bits are identical to the ones returned by decodeSoft.
+     * @param encoded         soft symbols, see decodeSoft
+     * @param numEncodedBits  length of encoded in *bits*, a multiple of the inv_rate
+     * @param reliabilities   receives one reliability per decoded bit, in message bit order.
+     *                        Must hold at least numEncodedBits / inv_rate entries.
+     * @return  decoded message
+     * @throws IllegalArgumentException
+     */
+    public byte[] decodeSoftSova(byte[] encoded, long numEncodedBits, short[] reliabilities) throws IllegalArgumentException {
+        if (Long.remainderUnsigned(numEncodedBits, this.rate_U) != 0) {
+            throw new IllegalArgumentException("correctConvolutionalDecode: encoded length of message must be a multiple of rate");
+        }
+        if (reliabilities.length < Long.divideUnsigned(numEncodedBits, rate_U)) {
+            throw new IllegalArgumentException("correctConvolutionalDecode: reliabilities must hold numEncodedBits / rate entries");
+        }
+
+        long numEncodedBytes = Long.remainderUnsigned(numEncodedBits, 8) != 0 ? Long.divideUnsigned(numEncodedBits, 8) + 1 :
+                Long.divideUnsigned(numEncodedBits, 8);
+
+        return _decodeSova(numEncodedBits, numEncodedBytes, encoded, reliabilities);
+    }
+
+    /**
+     * decodeSova is the hard decision counterpart of decodeSoftSova. Reliabilities are
+     * Hamming distance differences and are therefore coarse.
+     * @param encoded         packed encoded bits, see decode
+     * @param numEncodedBits  length of encoded in *bits*, a multiple of the inv_rate
+     * @param reliabilities   receives one reliability per decoded bit, in message bit order.
+     *                        Must hold at least numEncodedBits / inv_rate entries.
+     * @return  decoded message
+     * @throws IllegalArgumentException
+     */
+    public byte[] decodeSova(byte[] encoded, long numEncodedBits, short[] reliabilities) throws IllegalArgumentException {
+        if (Long.remainderUnsigned(numEncodedBits, this.rate_U) != 0) {
+            throw new IllegalArgumentException("correctConvolutionalDecode: encoded length of message must be a multiple of rate");
+        }
+        if (reliabilities.length < Long.divideUnsigned(numEncodedBits, rate_U)) {
+            throw new IllegalArgumentException("correctConvolutionalDecode: reliabilities must hold numEncodedBits / rate entries");
+        }
+
+        long numEncodedBytes = Long.remainderUnsigned(numEncodedBits, 8) != 0 ? Long.divideUnsigned(numEncodedBits, 8) + 1 :
+                Long.divideUnsigned(numEncodedBits, 8);
+        bitReader.reconfigure(encoded, (int) numEncodedBytes);
+
+        return _decodeSova(numEncodedBits, numEncodedBytes, null, reliabilities);
+    }
+
+    /**
+     * erasureLocations turns the per-bit reliabilities of decodeSoftSova into the
+     * erasureLocations array expected by ReedSolomon.decodeWithErasures.
+     * A byte is as reliable as its least reliable bit. Bytes below threshold are erased;
+     * if there are more of them than maxErasures, only the least reliable ones are kept.
+     * @param reliabilities   per-bit reliabilities of the decoded message
+     * @param byteOffset      position of the Reed-Solomon block within the decoded message, in bytes
+     * @param byteLength      length of the Reed-Solomon block, in bytes (at most 255)
+     * @param threshold       bytes with reliability below this value are erased
+     * @param maxErasures     upper bound on the number of erasures, at most the number of roots
+     * @return  block relative byte positions, in ascending order
+     */
+    public static byte[] erasureLocations(short[] reliabilities, int byteOffset, int byteLength,
+                                          int threshold, int maxErasures) {
+        int[] candidates = new int[byteLength];
+        int[] candidateReliability = new int[byteLength];
+        int numCandidates = 0;
+        for (int i = 0; i < byteLength; i++) {
+            int least = Integer.MAX_VALUE;
+            for (int b = 0; b < 8; b++) {
+                least = Math.min(least, Short.toUnsignedInt(reliabilities[8 * (byteOffset + i) + b]));
+            }
+            if (least < threshold) {
+                candidates[numCandidates] = i;
+                candidateReliability[numCandidates] = least;
+                numCandidates++;
+            }
+        }
+
+        // too many suspects: keep the maxErasures least reliable ones (selection sort, lists are short)
+        int numErasures = Math.min(numCandidates, maxErasures);
+        for (int i = 0; i < numErasures && numErasures < numCandidates; i++) {
+            int least = i;
+            for (int j = i + 1; j < numCandidates; j++) {
+                if (candidateReliability[j] < candidateReliability[least]) {
+                    least = j;
+                }
+            }
+            int tmp = candidates[i];
+            candidates[i] = candidates[least];
+            candidates[least] = tmp;
+            tmp = candidateReliability[i];
+            candidateReliability[i] = candidateReliability[least];
+            candidateReliability[least] = tmp;
+        }
+        Arrays.sort(candidates, 0, numErasures);
+
+        byte[] erasures = new byte[numErasures];
+        for (int i = 0; i < numErasures; i++) {
+            erasures[i] = (byte) candidates[i];
+        }
+        return erasures;
+    }
+
+
+    /**
+     * setLowLatency selects early traceback: decoded bits are released as soon as
+     * the survivor paths have merged instead of after a fixed traceback depth.
+     * On a clean channel this shortens the decoding delay from 5 * order bits to
+     * roughly the merge depth; on a noisy one it falls back to the fixed depth.
+     * Decoded output is not affected.
+     * @param lowLatency    true to check for merged survivors every order bits
+     */
+    public void setLowLatency(boolean lowLatency) {
+        this.lowLatency = lowLatency;
+        if (hasInitDecode) {
+            historyBuffer.setMergeCheckInterval(lowLatency ? order_U : 0);
+        }
+    }
+
+    /**
+     * setSurvivorManagement selects how survivor paths are stored.
+     * CORRECT_SURVIVOR_TRACEBACK (the default) keeps one decision bit per state and time slice
+     * and walks the history backwards to emit bits in groups.
+     * CORRECT_SURVIVOR_REGISTER_EXCHANGE keeps the last 5 * order decisions of each survivor
+     * in a 64 bit register, so a bit is emitted on every time slice with no traceback pass.
+     * It needs 5 * order to fit in a register, i.e. order 12 or less.
+     * Soft output decoding (decodeSoftSova) always uses traceback.
+     * @param survivorManagement    CORRECT_SURVIVOR_TRACEBACK or CORRECT_SURVIVOR_REGISTER_EXCHANGE
+     * @throws IllegalArgumentException if register exchange is requested for an order above 12
+     */
+    public void setSurvivorManagement(int survivorManagement) throws IllegalArgumentException {
+        if (survivorManagement == CORRECT_SURVIVOR_REGISTER_EXCHANGE && 5 * order_U > Long.SIZE - 1) {
+            throw new IllegalArgumentException("Convolutional: register exchange supports order up to 12");
+        }
+        this.survivorManagement = survivorManagement;
+    }
+
+    /**
+     * warmUp allocates the decoder state that is otherwise created by the first decode,
+     * so that decoding afterwards does not allocate tables
+     */
+    public void warmUp() {
+        ensureDecodeInit();
+        if (survivorManagement == CORRECT_SURVIVOR_REGISTER_EXCHANGE) {
+            ensureRegisterExchange();
+        }
+    }
+
+    void setMetricCheckpoint(MetricCheckpoint metricCheckpoint) {
+        this.metricCheckpoint = metricCheckpoint;
+    }
 
     public void decodePrintIter(int iter, int winnerIndex) {
         if (Integer.compareUnsigned(iter, 2_220) < 0) {
@@ -234,30 +447,93 @@ public class Convolutional {
         System.out.println();
     }
 
+    private byte[] _decodeSova(long numEncodedBits_U, long numEncodedBytes_U, byte[] softEncoded_U, short[] reliabilities) {
+        ensureDecodeInit();
+        historyBuffer.enableSoftOutput();
+        historyBuffer.setReliabilityOutput(reliabilities);
+        try {
+            return _decode(numEncodedBits_U, numEncodedBytes_U, softEncoded_U, historyBuffer);
+        } finally {
+            historyBuffer.setReliabilityOutput(null);
+        }
+    }
+
     private byte[] _decode(long numEncodedBits_U, long numEncodedBytes_U, byte[] softEncoded_U) {
-        if (!hasInitDecode) {
-            long maxErrorPerInput_U = rate_U * Byte.toUnsignedLong(SOFT_MAX);
-            int renormalizeInterval_U = (int) Long.divideUnsigned(Short.toUnsignedLong(DISTANCE_MAX), maxErrorPerInput_U);
-            decodeInit(5 * order_U, 15 * order_U, renormalizeInterval_U);
+        ensureDecodeInit();
+        if (survivorManagement == CORRECT_SURVIVOR_REGISTER_EXCHANGE) {
+            ensureRegisterExchange();
+            return _decode(numEncodedBits_U, numEncodedBytes_U, softEncoded_U, registerExchange);
         }
+        return _decode(numEncodedBits_U, numEncodedBytes_U, softEncoded_U, historyBuffer);
+    }
+
+    private byte[] _decode(long numEncodedBits_U, long numEncodedBytes_U, byte[] softEncoded_U, SurvivorBuffer survivors) {
+        this.survivors = survivors;
 
         int sets_U = (int) Long.divideUnsigned(numEncodedBits_U, rate_U);
         // XXX fix this vvvvvv
         byte[] msg = new byte[(int) numEncodedBytes_U];
-        bitWriter.reconfigure(msg, numEncodedBytes_U);
+        bitWriter.reconfigure(msg, (int) numEncodedBytes_U);
         errorBuffer.reset();
-        historyBuffer.reset();
+        survivors.reset();
+        if (softEncoded_U == null) {
+            if (symbols_U.length < sets_U) {
+                symbols_U = new int[sets_U];
+            }
+            bitReader.readSymbols(symbols_U, sets_U, rate_U);
+        }
 
         // no outputs are generated during warmup
         decodeWarmup(sets_U, softEncoded_U);
-        decodeInner(sets_U, softEncoded_U);
+        if (!decodeInner(sets_U, softEncoded_U)) {
+            return null;
+        }
         decodeTail(sets_U, softEncoded_U);
 
-        historyBuffer.flush(bitWriter);
+        survivors.flush(bitWriter);
+        if (metricCheckpoint != null &&
+                !metricCheckpoint.proceed(sets_U, survivors.metricGrowth() + Short.toUnsignedLong(errorBuffer.getReadError(0)))) {
+            return null;
+        }
 
         return Arrays.copyOf(msg, bitWriter.length());
     }
 
+    private void ensureDecodeInit() {
+        if (!hasInitDecode) {
+            decodeInit(5 * order_U, 15 * order_U, renormalizeInterval());
+        }
+    }
+
+    private int renormalizeInterval() {
+        long maxErrorPerInput_U = rate_U * Byte.toUnsignedLong(SOFT_MAX);
+        return (int) Long.divideUnsigned(Short.toUnsignedLong(DISTANCE_MAX), maxErrorPerInput_U);
+    }
+
+    // decode with storage owned by a DecoderBank and shared with other codes, the buffers
+    //  are sized for the largest code of the bank. must be called before every decode since
+    //  the other codes reconfigure the history buffer
+    void bindDecodeState(HistoryBuffer historyBuffer, ErrorBuffer errorBuffer, short[] distances_U) {
+        if (pairLookup == null) {
+            pairLookup = new PairLookup(rate_U, order_U, table_U);
+            softMeasurement = CORRECT_SOFT_LINEAR;
+        }
+        historyBuffer.reconfigure(5 * order_U, 15 * order_U, renormalizeInterval(),
+                Integer.divideUnsigned(numstates_U, 2), 1 << (order_U - 1));
+        historyBuffer.setMergeCheckInterval(lowLatency ? order_U : 0);
+        this.historyBuffer = historyBuffer;
+        this.errorBuffer = errorBuffer;
+        this.distances_U = distances_U;
+        hasInitDecode = true;
+    }
+
+    private void ensureRegisterExchange() {
+        if (registerExchange == null) {
+            registerExchange = new RegisterExchangeBuffer(5 * order_U, historyBuffer.renormalizeInterval_U,
+                    Integer.divideUnsigned(numstates_U, 2), 1 << (order_U - 1));
+        }
+    }
+
     private void decodeInit(int minTraceback_U, int tracebackLength_U, int renormalizeInterval_U) {
         hasInitDecode = true;
         distances_U = new short[1 << rate_U];
@@ -268,6 +544,7 @@ public class Convolutional {
         historyBuffer = new HistoryBuffer(minTraceback_U, tracebackLength_U, renormalizeInterval_U,
                 Integer.divideUnsigned(numstates_U, 2), 1 << (order_U - 1));
         errorBuffer = new ErrorBuffer(numstates_U);
+        historyBuffer.setMergeCheckInterval(lowLatency ? order_U : 0);
     }
 
     private void decodeWarmup(int sets_U, byte[] soft_U) {
@@ -278,7 +555,7 @@ public class Convolutional {
             // the difference being that this `out` will have the channel noise/errors applied
             int out_U = 0;
             if (soft_U == null) {
-                out_U = bitReader.read(this.rate_U);
+                out_U = symbols_U[i];
             }
             // walk all of the state we have so far
             for (int j = 0; Integer.compareUnsigned(j, 1 << i + 1) < 0; j += 1) {
@@ -300,8 +577,9 @@ public class Convolutional {
         }
     }
 
-    private void decodeInner(int sets_U, byte[] soft_U) {
+    private boolean decodeInner(int sets_U, byte[] soft_U) {
         int highbit_U = 1 << order_U - 1;
+        int renormalizations_U = 0;
         for (int i = order_U - 1; Long.compareUnsigned(Integer.toUnsignedLong(i), Integer.toUnsignedLong(sets_U) - order_U + 1) < 0; i++) {
             // lasterrors are the aggregate bit errors for the states of shiftregister for the previous
             // time slice
@@ -316,7 +594,7 @@ public class Convolutional {
                     }
                 }
             } else {
-                int out_U = bitReader.read(rate_U);
+                int out_U = symbols_U[i];
                 for (int i2 = 0; Integer.compareUnsigned(i2, 1 << rate_U) < 0; i2++) {
                     distances_U[i2] = distance(i2, out_U);
                 }
@@ -328,7 +606,9 @@ public class Convolutional {
             int numIter_U = highbit_U << 1;
             // aggregate bit errors for this time slice
 
-            byte[] history_U = historyBuffer.getSlice();
+            byte[] history_U = survivors.getSlice();
+            // metric differences, only kept when soft output was requested
+            short[] delta_U = survivors.getDeltaSlice();
             // walk through all states, ignoring oldest bit
             // we will track a best register state (path) and the number of bit errors at that path at
             // this time slice
@@ -381,6 +661,9 @@ public class Convolutional {
                     }
                     errorBuffer.setWriteError(successor_U, error_U);
                     history_U[successor_U] = historyMask_U;
+                    if (delta_U != null) {
+                        delta_U[successor_U] = metricDifference(lowError_U, highError_U);
+                    }
 
                     int lowPlusOne_U = low_U + offset_U + 1;
                     short lowPlusOneError_U = (short) ((lowConcatDist_U >>> 16) + Short.toUnsignedInt(lowPastError_U));
@@ -399,12 +682,22 @@ public class Convolutional {
 
                     errorBuffer.setWriteError(plusOneSuccessor_U, plusOneError_U);
                     history_U[plusOneSuccessor_U] = plusOneHistoryMask_U;
+                    if (delta_U != null) {
+                        delta_U[plusOneSuccessor_U] = metricDifference(lowPlusOneError_U, highPlusOneError_U);
+                    }
 
                 }
             }
-            historyBuffer.process(errorBuffer.getWriteErrors(), bitWriter);
+            survivors.process(errorBuffer.getWriteErrors(), bitWriter);
             errorBuffer.swap();
+            if (metricCheckpoint != null && survivors.renormalizations() != renormalizations_U) {
+                renormalizations_U = survivors.renormalizations();
+                if (!metricCheckpoint.proceed(i + 1, survivors.metricGrowth())) {
+                    return false;
+                }
+            }
         }
+        return true;
     }
 
     private void decodeTail(int sets_U, byte[] soft_U) {
@@ -415,7 +708,8 @@ public class Convolutional {
         for (int i = (int) (Integer.toUnsignedLong(sets_U) - order_U + 1); Integer.compareUnsigned(i, sets_U) < 0; i++) {
             // lasterrors are the aggregate bit errors for the states of shiftregister for the previous
             // time slice
-            byte[] history_U = historyBuffer.getSlice();
+            byte[] history_U = survivors.getSlice();
+            short[] delta_U = survivors.getDeltaSlice();
             // calculate the distance from all output states to our sliced bits
             if (soft_U != null) {
                 if (softMeasurement == CORRECT_SOFT_LINEAR) {
@@ -428,7 +722,7 @@ public class Convolutional {
                     }
                 }
             } else {
-                int out_U = bitReader.read(rate_U);
+                int out_U = symbols_U[i];
                 for (int i2 = 0; Integer.compareUnsigned(i2, 1 << rate_U) < 0; i2++) {
                     distances_U[i2] = distance(i2, out_U);
                 }
@@ -464,14 +758,22 @@ public class Convolutional {
                 }
                 errorBuffer.setWriteError(successor_U, error_U);
                 history_U[successor_U] = historyMask_U;
-
+                if (delta_U != null) {
+                    delta_U[successor_U] = metricDifference(lowError_U, highError_U);
+                }
             }
-            historyBuffer.processSkip(errorBuffer.getWriteErrors(), bitWriter, skip_U);
+            survivors.processSkip(errorBuffer.getWriteErrors(), bitWriter, skip_U);
             errorBuffer.swap();
         }
 
     }
 
+    // how much the discarded path lost by in the add-compare-select step
+    private static short metricDifference(short lowError_U, short highError_U) {
+        int d = Short.toUnsignedInt(lowError_U) - Short.toUnsignedInt(highError_U);
+        return (short) (d < 0 ? -d : d);
+    }
+
     public void fillTable(int rate_U, int order_U, short[] poly_U) {
         for(int i = 0; Integer.compareUnsigned(i, 1 << order_U) < 0; i++) {
             int out_U = 0;
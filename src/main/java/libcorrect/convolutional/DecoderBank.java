@@ -0,0 +1,95 @@
+/*
+ * libcorrect4j
+ * DecoderBank.java
+ */
+
+package libcorrect.convolutional;
+
+/**
+ * Decodes frames with any of a fixed set of codes, e.g. for a modem that switches
+ * between rates frame by frame.
+ * The path metrics, survivor history and branch distances are allocated once, sized for
+ * the largest code of the bank, and shared by all codes; the per code lookup tables are
+ * built when the bank is created. Switching codes only reconfigures the shared buffers,
+ * so a frame costs the same whether or not its code differs from the previous one.
+ * A bank decodes one frame at a time, use one bank per thread.
+ */
+public class DecoderBank {
+    private final Convolutional[] codes;
+    private final HistoryBuffer historyBuffer;
+    private final ErrorBuffer errorBuffer;
+    private final short[] distances_U;
+
+    /**
+     * @param codes  the codes of the bank, the index of a code is its id. Survivor
+     *               management and latency mode of every code are kept.
+     * @throws IllegalArgumentException if no code is given
+     */
+    public DecoderBank(Convolutional... codes) throws IllegalArgumentException {
+        if (codes.length == 0) {
+            throw new IllegalArgumentException("DecoderBank: at least one code is required");
+        }
+        int maxOrder_U = 0;
+        int maxRate_U = 0;
+        for (Convolutional code : codes) {
+            maxOrder_U = Math.max(maxOrder_U, code.getOrder());
+            maxRate_U = Math.max(maxRate_U, code.getRate());
+        }
+        // the history of the largest code, the renormalize interval is set per code
+        historyBuffer = new HistoryBuffer(5 * maxOrder_U, 15 * maxOrder_U, 1,
+                1 << (maxOrder_U - 1), 1 << (maxOrder_U - 1));
+        errorBuffer = new ErrorBuffer(1 << maxOrder_U);
+        distances_U = new short[1 << maxRate_U];
+
+        this.codes = new Convolutional[codes.length];
+        for (int id = 0; id < codes.length; id++) {
+            Convolutional code = new Convolutional(codes[id]);
+            code.bindDecodeState(historyBuffer, errorBuffer, distances_U);
+            code.warmUp();
+            this.codes[id] = code;
+        }
+    }
+
+    /**
+     * @return number of codes in the bank
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param id  index of the code
+     * @return the code, for encoding
+     */
+    public Convolutional getCode(int id) {
+        return codes[id];
+    }
+
+    /**
+     * Decode hard decision bits, see Convolutional.decode
+     * @param id              index of the code the frame was encoded with
+     * @param encoded         packed encoded bits
+     * @param numEncodedBits  length of encoded in *bits*, a multiple of the inv_rate of the code
+     * @return  decoded message
+     * @throws IllegalArgumentException
+     */
+    public byte[] decode(int id, byte[] encoded, long numEncodedBits) throws IllegalArgumentException {
+        Convolutional code = codes[id];
+        code.bindDecodeState(historyBuffer, errorBuffer, distances_U);
+        return code.decode(encoded, numEncodedBits);
+    }
+
+    /**
+     * Decode soft symbols, see Convolutional.decodeSoft
+     * @param id              index of the code the frame was encoded with
+     * @param encoded         soft symbols
+     * @param numEncodedBits  number of symbols, a multiple of the inv_rate of the code
+     * @return  decoded message
+     * @throws IllegalArgumentException
+     */
+    public byte[] decodeSoft(int id, byte[] encoded, long numEncodedBits) throws IllegalArgumentException {
+        Convolutional code = codes[id];
+        code.bindDecodeState(historyBuffer, errorBuffer, distances_U);
+        return code.decodeSoft(encoded, numEncodedBits);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * libcorrect4j
+ * DecoderPool.java
+ */
+
+package libcorrect.convolutional;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of decoders for one code, for services that decode from many threads.
+ * A Convolutional instance keeps its decoder state in fields, so it can only decode in
+ * one thread at a time. The pool hands out copies of the code (sharing its output table)
+ * whose decoder state is allocated ahead of time by warmUp.
+ * Idle decoders sit on a lock-free queue of at most maxSize. Optionally, every thread
+ * also keeps the decoder it released last and gets it back on its next acquire without
+ * touching shared state. Those decoders are not bounded by maxSize, so per thread
+ * caching suits a fixed set of worker threads rather than one thread per session.
+ */
+public class DecoderPool {
+    private final Convolutional code;
+    // idle decoders kept on the shared queue, beyond that released decoders are dropped
+    private final int maxSize;
+    private final ConcurrentLinkedQueue<Convolutional> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeSize = new AtomicInteger();
+    // the decoder each thread released last, null without per thread caching
+    private final ThreadLocal<Convolutional[]> cached;
+
+    /**
+     * Pool without per thread caching, it never keeps more than maxSize idle decoders
+     * @param code     the code to decode, its survivor management and latency mode are copied
+     * @param maxSize  how many idle decoders the pool keeps
+     * @throws IllegalArgumentException if maxSize is negative
+     */
+    public DecoderPool(Convolutional code, int maxSize) throws IllegalArgumentException {
+        this(code, maxSize, false);
+    }
+
+    /**
+     * @param code            the code to decode, its survivor management and latency mode are copied
+     * @param maxSize         how many idle decoders the shared queue keeps
+     * @param cachePerThread  whether every thread keeps the decoder it released last, in
+     *                        addition to the maxSize on the shared queue
+     * @throws IllegalArgumentException if maxSize is negative
+     */
+    public DecoderPool(Convolutional code, int maxSize, boolean cachePerThread) throws IllegalArgumentException {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("DecoderPool: maxSize must not be negative");
+        }
+        this.code = code;
+        this.maxSize = maxSize;
+        cached = cachePerThread ? ThreadLocal.withInitial(() -> new Convolutional[1]) : null;
+    }
+
+    /**
+     * prewarm fills the pool with ready to use decoders
+     * @param count  number of decoders to create, capped by maxSize
+     */
+    public void prewarm(int count) {
+        for (int i = freeSize.get(); i < Math.min(count, maxSize); i++) {
+            release(createDecoder(), false);
+        }
+    }
+
+    /**
+     * @return number of idle decoders on the shared queue
+     */
+    public int size() {
+        return freeSize.get();
+    }
+
+    /**
+     * acquire hands out a decoder for the exclusive use of the caller until it is released
+     * @return  a warmed up decoder
+     */
+    public Convolutional acquire() {
+        if (cached != null) {
+            Convolutional[] slot = cached.get();
+            Convolutional decoder = slot[0];
+            if (decoder != null) {
+                slot[0] = null;
+                return decoder;
+            }
+        }
+        Convolutional decoder = free.poll();
+        if (decoder != null) {
+            freeSize.decrementAndGet();
+            return decoder;
+        }
+        return createDecoder();
+    }
+
+    /**
+     * release gives a decoder obtained from acquire back to the pool
+     * @param decoder  the decoder, which must not be used by the caller afterwards
+     */
+    public void release(Convolutional decoder) {
+        release(decoder, true);
+    }
+
+    private void release(Convolutional decoder, boolean cache) {
+        if (cache && cached != null) {
+            Convolutional[] slot = cached.get();
+            if (slot[0] == null) {
+                slot[0] = decoder;
+                return;
+            }
+        }
+        if (freeSize.incrementAndGet() <= maxSize) {
+            free.offer(decoder);
+        } else {
+            freeSize.decrementAndGet();
+        }
+    }
+
+    /**
+     * Decode hard decision bits with a pooled decoder, see Convolutional.decode
+     */
+    public byte[] decode(byte[] encoded, long numEncodedBits) throws IllegalArgumentException {
+        Convolutional decoder = acquire();
+        try {
+            return decoder.decode(encoded, numEncodedBits);
+        } finally {
+            release(decoder);
+        }
+    }
+
+    /**
+     * Decode soft symbols with a pooled decoder, see Convolutional.decodeSoft
+     */
+    public byte[] decodeSoft(byte[] encoded, long numEncodedBits) throws IllegalArgumentException {
+        Convolutional decoder = acquire();
+        try {
+            return decoder.decodeSoft(encoded, numEncodedBits);
+        } finally {
+            release(decoder);
+        }
+    }
+
+    private Convolutional createDecoder() {
+        Convolutional decoder = new Convolutional(code);
+        decoder.warmUp();
+        return decoder;
+    }
+}
@@ -6,19 +6,14 @@
 package libcorrect.convolutional;
 
 // generates output bits after accumulating sufficient history
-public class HistoryBuffer {
+public class HistoryBuffer extends SurvivorBuffer {
     // history entries must be at least this old to be decoded
-    private final int minTracebackLength_U;
+    private int minTracebackLength_U;
     // we'll decode entries in bursts. this tells us the length of the burst
-    private final int tracebackGroupLength_U;
+    private int tracebackGroupLength_U;
     // we will store a total of cap entries. equal to min_traceback_length +
     // traceback_group_length
-    private final int cap_U;
-    // how many states in the shift register? this is one of the dimensions of
-    // history table
-    private final int numStates_U;
-    // what's the high order bit of the shift register?
-    private final int highbit_U;
+    private int cap_U;
     // history is a compact history representation for every shift register
     // state,
     //  one bit per time slice
@@ -29,9 +24,25 @@ public class HistoryBuffer {
     private int len_U;
     // temporary store of fetched bits
     private final byte[] fetched_U;
-    // how often should we renormalize?
-    private final int renormalizeInterval_U;
-    private int renormalizeCounter_U;
+    // soft output (SOVA) state, allocated only once soft output is requested
+    // delta holds the ACS metric difference between the survivor and the discarded path
+    //  for every state, one entry per time slice, next to the history bits
+    private short[][] delta_U;
+    // per-slice scratch for the soft output traceback: the ML path states, its decisions
+    //  and the running reliability of every slice in the window
+    private int[] pathStates_U;
+    private byte[] pathBits_U;
+    private short[] pathReliability_U;
+    // destination of reliabilities, written in the same order as the decoded bits
+    private short[] reliability_U;
+    private int reliabilityIndex_U;
+    // low latency mode: how often to check whether the survivors have merged (0 = never)
+    private int mergeCheckInterval_U;
+    private int mergeCheckCounter_U;
+    // scratch for merge detection: distinct survivor states and a visited marker per state
+    private final int[] mergeLive_U;
+    private final int[] mergeStamp_U;
+    private int mergeGeneration_U;
 
     public byte getHistory(int i, int j) {
         return history_U[i][j];
@@ -42,54 +53,157 @@ public class HistoryBuffer {
                          int renormalizeInterval_U,
                          int numStates_U,
                          int highbit_U) {
+        super(renormalizeInterval_U, numStates_U, highbit_U);
         this.minTracebackLength_U = minTracebackLength_U;
         this.tracebackGroupLength_U = tracebackGroupLength_U;
         this.cap_U = minTracebackLength_U + tracebackGroupLength_U;
-        this.numStates_U = numStates_U;
-        this.highbit_U = highbit_U;
 
         this.history_U = new byte[this.cap_U][this.numStates_U];
         this.fetched_U = new byte[this.cap_U];
+        this.mergeLive_U = new int[this.numStates_U];
+        this.mergeStamp_U = new int[this.numStates_U];
 
         this.index_U = 0;
         this.len_U = 0;
+    }
 
-        this.renormalizeCounter_U = 0;
+    /**
+     * Reuses the buffer for another code. The storage allocated by the constructor is kept,
+     * so the new code must not need more history or states than the one it was created for.
+     * @throws IllegalArgumentException if the new configuration does not fit
+     */
+    public void reconfigure(int minTracebackLength_U,
+                            int tracebackGroupLength_U,
+                            int renormalizeInterval_U,
+                            int numStates_U,
+                            int highbit_U) throws IllegalArgumentException {
+        int cap_U = minTracebackLength_U + tracebackGroupLength_U;
+        if (cap_U > history_U.length || numStates_U > history_U[0].length) {
+            throw new IllegalArgumentException("HistoryBuffer: configuration exceeds the allocated history");
+        }
+        this.minTracebackLength_U = minTracebackLength_U;
+        this.tracebackGroupLength_U = tracebackGroupLength_U;
+        this.cap_U = cap_U;
         this.renormalizeInterval_U = renormalizeInterval_U;
+        this.renormalizeCounter_U = 0;
+        this.numStates_U = numStates_U;
+        this.highbit_U = highbit_U;
+        reset();
     }
 
+    @Override
     public void reset() {
+        super.reset();
         len_U = 0;
         index_U = 0;
+        reliabilityIndex_U = 0;
+        mergeCheckCounter_U = 0;
+    }
+
+    /**
+     * Enables low latency mode. Every interval slices the survivor paths of all states
+     * are traced back together; once they have merged, everything older than the
+     * merge point is final and is emitted right away instead of waiting for
+     * minTracebackLength slices. If the paths have not merged, the regular
+     * fixed depth traceback still applies, so worst case behaviour is unchanged.
+     * @param interval_U  slices between merge checks, 0 disables low latency mode
+     */
+    public void setMergeCheckInterval(int interval_U) {
+        this.mergeCheckInterval_U = interval_U;
+        this.mergeCheckCounter_U = 0;
     }
 
+    /**
+     * @return number of slices that have been processed but not emitted yet
+     */
+    public int pending() {
+        return len_U;
+    }
+
+    @Override
     public byte[] getSlice() {
         return history_U[index_U];
     }
 
-    public int search(short[] distances_U, int searchEvery_U) {
-        int bestpath_U = 0;
-        int leasterror_U = Integer.MAX_VALUE;
-        // search for a state with the least error
-        for(int state_U = 0; Integer.compareUnsigned(state_U, numStates_U) < 0; state_U += searchEvery_U) {
-            if(Integer.compareUnsigned(Short.toUnsignedInt(distances_U[state_U]), leasterror_U) < 0) {
-                leasterror_U = distances_U[state_U];
-                bestpath_U = state_U;
-            }
+    /**
+     * Allocates the metric difference storage used by the soft output traceback
+     */
+    public void enableSoftOutput() {
+        if (delta_U == null) {
+            // sized like the history, which may be larger than the current configuration
+            delta_U = new short[history_U.length][history_U[0].length];
+            pathStates_U = new int[history_U.length];
+            pathBits_U = new byte[history_U.length];
+            pathReliability_U = new short[history_U.length];
         }
-        return bestpath_U;
     }
 
-    public void renormalize(short[] distances_U, int minRegister_U) {
-        short minDistance_U = distances_U[minRegister_U];
-        for(int i = 0; Integer.compareUnsigned(i, numStates_U) < 0; i++) {
-            distances_U[i] = (short)(Short.toUnsignedInt(distances_U[i]) - Short.toUnsignedInt(minDistance_U));
+    /**
+     * Selects where reliabilities of decoded bits are written. Passing null disables soft output.
+     * @param reliability_U  destination, one entry per decoded bit
+     */
+    public void setReliabilityOutput(short[] reliability_U) {
+        this.reliability_U = reliability_U;
+        this.reliabilityIndex_U = 0;
+    }
+
+    /**
+     * @return the slice of metric differences matching getSlice() or null if soft output is off
+     */
+    @Override
+    public short[] getDeltaSlice() {
+        return reliability_U != null ? delta_U[index_U] : null;
+    }
+
+    /**
+     * Walks back the survivor paths of all states at once until they all pass
+     * through the same state. Everything older than that point is the same on
+     * every survivor, so it is final no matter how the trellis continues.
+     * @return number of slices walked back before the survivors merged, or -1 if they
+     *         did not merge within the stored history
+     */
+    public int mergeDepth() {
+        int highbit_U = this.highbit_U;
+        int index_U = this.index_U;
+        int[] live_U = this.mergeLive_U;
+        int[] stamp_U = this.mergeStamp_U;
+        int numLive_U = numStates_U;
+        for(int state_U = 0; state_U < numStates_U; state_U++) {
+            live_U[state_U] = state_U;
         }
+        for(int j = 0; j < this.len_U; j++) {
+            if(numLive_U == 1) {
+                return j;
+            }
+            if(index_U == 0) {
+                index_U = cap_U - 1;
+            } else {
+                index_U--;
+            }
+            // step every distinct survivor back to its predecessor, dropping duplicates
+            int generation_U = ++this.mergeGeneration_U;
+            byte[] history_U = this.history_U[index_U];
+            int next_U = 0;
+            for(int k = 0; k < numLive_U; k++) {
+                int state_U = live_U[k];
+                int predecessor_U = (state_U | (history_U[state_U] != 0 ? highbit_U : 0)) >>> 1;
+                if(stamp_U[predecessor_U] != generation_U) {
+                    stamp_U[predecessor_U] = generation_U;
+                    live_U[next_U++] = predecessor_U;
+                }
+            }
+            numLive_U = next_U;
+        }
+        return numLive_U == 1 ? this.len_U : -1;
     }
 
     public void traceback(int bestpath_U,
                           int minTracebackLength_U,
                           BitWriter output) {
+        if (reliability_U != null) {
+            tracebackSoft(bestpath_U, minTracebackLength_U, output);
+            return;
+        }
         int fetchedIndex_U = 0;
         int highbit_U = this.highbit_U;
         int index_U = this.index_U;
@@ -138,6 +252,88 @@ public class HistoryBuffer {
         output.writeBitlistReversed(this.fetched_U, fetchedIndex_U);
         this.len_U -= fetchedIndex_U;
     }
+    /**
+     * Soft output traceback (SOVA, Hagenauer's update rule)
+     * First the ML path is walked back over the whole window. Then, for every slice on
+     * that path, the discarded competitor is traced back for at most minTracebackLength
+     * slices; wherever it decides a bit differently from the ML path, the reliability of
+     * that bit is lowered to the metric difference the competitor lost by.
+     * Bits older than minTracebackLength are emitted, like in traceback.
+     */
+    private void tracebackSoft(int bestpath_U,
+                               int minTracebackLength_U,
+                               BitWriter output) {
+        int highbit_U = this.highbit_U;
+        int cap_U = this.cap_U;
+        int len_U = this.len_U;
+        int[] pathStates_U = this.pathStates_U;
+        byte[] pathBits_U = this.pathBits_U;
+        short[] pathReliability_U = this.pathReliability_U;
+
+        // walk the ML path, newest slice first
+        int index_U = this.index_U;
+        for (int j = 0; j < len_U; j++) {
+            if (index_U == 0) {
+                index_U = cap_U - 1;
+            } else {
+                index_U--;
+            }
+            pathStates_U[j] = bestpath_U;
+            byte history_U = this.history_U[index_U][bestpath_U];
+            pathBits_U[j] = history_U;
+            bestpath_U |= history_U != 0 ? highbit_U : 0;
+            bestpath_U >>>= 1;
+            pathReliability_U[j] = (short) 0xffff;
+        }
+
+        // competitors can only be told apart from the ML path within the traceback depth
+        int depth_U = this.minTracebackLength_U;
+        index_U = this.index_U;
+        for (int j = 0; j < len_U; j++) {
+            if (index_U == 0) {
+                index_U = cap_U - 1;
+            } else {
+                index_U--;
+            }
+            short delta = delta_U[index_U][pathStates_U[j]];
+            // the competitor always disagrees on the bit of its own slice
+            if (Short.toUnsignedInt(delta) < Short.toUnsignedInt(pathReliability_U[j])) {
+                pathReliability_U[j] = delta;
+            }
+            int competitor_U = (pathStates_U[j] | (pathBits_U[j] != 0 ? 0 : highbit_U)) >>> 1;
+            int competitorIndex_U = index_U;
+            int last_U = Math.min(len_U - 1, j + depth_U);
+            for (int k = j + 1; k <= last_U; k++) {
+                if (competitor_U == pathStates_U[k]) {
+                    // paths merged, everything older is shared
+                    break;
+                }
+                if (competitorIndex_U == 0) {
+                    competitorIndex_U = cap_U - 1;
+                } else {
+                    competitorIndex_U--;
+                }
+                byte history_U = this.history_U[competitorIndex_U][competitor_U];
+                if (history_U != pathBits_U[k] && Short.toUnsignedInt(delta) < Short.toUnsignedInt(pathReliability_U[k])) {
+                    pathReliability_U[k] = delta;
+                }
+                competitor_U |= history_U != 0 ? highbit_U : 0;
+                competitor_U >>>= 1;
+            }
+        }
+
+        // emit oldest first, skipping the slices that are not yet old enough
+        int fetchedIndex_U = 0;
+        for (int j = len_U - 1; j >= minTracebackLength_U; j--) {
+            this.fetched_U[fetchedIndex_U] = pathBits_U[j];
+            reliability_U[reliabilityIndex_U++] = pathReliability_U[j];
+            fetchedIndex_U++;
+        }
+        output.writeBitlist(this.fetched_U, fetchedIndex_U);
+        this.len_U -= fetchedIndex_U;
+    }
+
+    @Override
     public void processSkip(short[] distances_U, BitWriter output, int skip_U) {
         this.index_U++;
         if(this.index_U == this.cap_U) {
@@ -167,13 +363,20 @@ public class HistoryBuffer {
             // not renormalizing, find the bestpath here
             int bestpath_U = search(distances_U, skip_U);
             traceback(bestpath_U, this.minTracebackLength_U, output);
+        } else if(this.mergeCheckInterval_U != 0 && this.reliability_U == null && skip_U == 1 &&
+                ++this.mergeCheckCounter_U >= this.mergeCheckInterval_U) {
+            // low latency: release whatever is already decided
+            // (soft output keeps the fixed depth, its reliabilities need the full window)
+            this.mergeCheckCounter_U = 0;
+            int depth_U = mergeDepth();
+            if(depth_U >= 0 && depth_U < this.len_U) {
+                // any state leads to the merge point, the best one is as good as another
+                traceback(search(distances_U, skip_U), depth_U, output);
+            }
         }
     }
 
-    public void process(short[] distances_U, BitWriter output) {
-        processSkip(distances_U, output, 1);
-    }
-
+    @Override
     public void flush(BitWriter output) {
         traceback(0, 0, output);
     }
@@ -0,0 +1,15 @@
+/*
+ * libcorrect4j
+ * MetricCheckpoint.java
+ */
+package libcorrect.convolutional;
+
+// called by the decoder whenever it renormalizes, and once more at the end of the block
+interface MetricCheckpoint {
+    /**
+     * @param slice_U         time slices decoded so far
+     * @param metricGrowth_U  path metric of the best path so far
+     * @return false to abandon the decode
+     */
+    boolean proceed(int slice_U, long metricGrowth_U);
+}
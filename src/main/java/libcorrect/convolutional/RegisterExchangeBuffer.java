@@ -0,0 +1,85 @@
+/*
+ * libcorrect4j
+ * RegisterExchangeBuffer.java
+ */
+package libcorrect.convolutional;
+
+// register exchange survivor management
+// every state carries the decisions of its survivor path in a long, newest decision in bit 0.
+// after each time slice the registers are copied from the chosen predecessors and shifted,
+// so the decoded bit can be read straight from the best state's register, without traceback
+public class RegisterExchangeBuffer extends SurvivorBuffer {
+    // decisions older than this are final, at most 63 so that the decided bit is still in the register
+    private final int depth_U;
+    // decisions of the slice being computed
+    private final byte[] slice_U;
+    // survivor registers, double buffered like the error metrics
+    private final long[][] registers_U;
+    private int index_U;
+    // how many decisions are held that have not been emitted yet
+    private int len_U;
+
+    public RegisterExchangeBuffer(int depth_U,
+                                  int renormalizeInterval_U,
+                                  int numStates_U,
+                                  int highbit_U) {
+        super(renormalizeInterval_U, numStates_U, highbit_U);
+        if (depth_U > Long.SIZE - 1) {
+            throw new IllegalArgumentException("RegisterExchangeBuffer: depth must fit a 64 bit register");
+        }
+        this.depth_U = depth_U;
+        this.slice_U = new byte[numStates_U];
+        this.registers_U = new long[2][numStates_U];
+        this.index_U = 0;
+        this.len_U = 0;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        len_U = 0;
+    }
+
+    @Override
+    public byte[] getSlice() {
+        return slice_U;
+    }
+
+    @Override
+    public void processSkip(short[] distances_U, BitWriter output, int skip_U) {
+        long[] read_U = registers_U[index_U];
+        long[] write_U = registers_U[index_U ^ 1];
+        byte[] slice_U = this.slice_U;
+        int highbit_U = this.highbit_U;
+        for (int state_U = 0; state_U < numStates_U; state_U += skip_U) {
+            int decision_U = slice_U[state_U];
+            int predecessor_U = (state_U | (decision_U != 0 ? highbit_U : 0)) >>> 1;
+            write_U[state_U] = read_U[predecessor_U] << 1 | decision_U;
+        }
+        index_U ^= 1;
+        len_U++;
+
+        int bestpath_U = -1;
+        if (++renormalizeCounter_U == renormalizeInterval_U) {
+            renormalizeCounter_U = 0;
+            bestpath_U = search(distances_U, skip_U);
+            renormalize(distances_U, bestpath_U);
+        }
+        if (len_U > depth_U) {
+            if (bestpath_U < 0) {
+                bestpath_U = search(distances_U, skip_U);
+            }
+            output.write1((byte) (write_U[bestpath_U] >>> depth_U));
+            len_U--;
+        }
+    }
+
+    @Override
+    public void flush(BitWriter output) {
+        long register_U = registers_U[index_U][0];
+        for (int j = len_U - 1; j >= 0; j--) {
+            output.write1((byte) (register_U >>> j));
+        }
+        len_U = 0;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * libcorrect4j
+ * SequentialDecoder.java
+ */
+
+package libcorrect.convolutional;
+
+import java.util.Arrays;
+
+/**
+ * Sequential (Fano algorithm) decoder for long constraint length convolutional codes.
+ * Viterbi decoding costs 2**order per bit, the Fano algorithm explores one path at a
+ * time and only backtracks when the path metric drops, so at a reasonable SNR its cost
+ * is a few branch computations per bit regardless of the order.
+ * Encoded data uses the same layout as Convolutional.encode: the message is followed
+ * by order + 1 zero bits that terminate the code.
+ * Branch outputs are computed on the fly from the polynomials, so orders up to 32
+ * work without a 2**order output table.
+ */
+public class SequentialDecoder {
+    // Layland-Lushbaugh r=1/2 K=32 code, a common choice for sequential decoding
+    public final static int[] correctConvR1232Polynomial = {0xf2d05351, 0xe4613c47};
+
+    // metrics are log-likelihood ratios in bits, scaled to integers by this factor
+    private final static double METRIC_SCALE = 16.0;
+    private final static double DEFAULT_EB_N0 = 4.0;
+    private final static int DEFAULT_CYCLES_PER_BIT = 100;
+
+    private final int rate_U;
+    private final int order_U;
+    private final int[] poly_U;
+    private final int shiftmask_U;
+
+    // branch metric of a received 8-bit symbol given the transmitted bit, [bit][symbol]
+    private final int[][] softMetric = new int[2][256];
+    private final int[][] hardMetric = new int[2][256];
+    // threshold spacing of the Fano algorithm
+    private int delta;
+    private int cyclesPerBit;
+    private long cycles;
+
+    // per node scratch, grown when a longer block comes in
+    private int[] encstate_U = new int[0];
+    private int[] gamma = new int[0];
+    private int[] bestMetric = new int[0];
+    private int[] secondMetric = new int[0];
+    private byte[] branch_U = new byte[0];
+
+    /**
+     * Sequential decoder constructor. The code is described like for Convolutional,
+     * but polynomials are 32 bits wide so that orders above 16 can be expressed.
+     * @param r    inverted rate
+     * @param o    order, 32 at most
+     * @param p    polynomials
+     * @throws IllegalArgumentException if requested decoder cannot be created
+     */
+    public SequentialDecoder(int r, int o, int[] p) throws IllegalArgumentException {
+        if (o < 1 || o > Integer.SIZE) {
+            throw new IllegalArgumentException("SequentialDecoder: order must be between 1 and 32");
+        }
+        if (r < 2 || r > Byte.SIZE) {
+            throw new IllegalArgumentException("SequentialDecoder: rate must be between 2 and 8");
+        }
+        if (p.length < r) {
+            throw new IllegalArgumentException("SequentialDecoder: one polynomial per rate is required");
+        }
+        rate_U = r;
+        order_U = o;
+        poly_U = Arrays.copyOf(p, r);
+        shiftmask_U = o == Integer.SIZE ? -1 : (1 << o) - 1;
+        cyclesPerBit = DEFAULT_CYCLES_PER_BIT;
+        setChannel(DEFAULT_EB_N0);
+    }
+
+    /**
+     * Sequential decoder for one of the 16 bit polynomial sets of Convolutional
+     */
+    public SequentialDecoder(int r, int o, short[] p) throws IllegalArgumentException {
+        this(r, o, widen(p));
+    }
+
+    private static int[] widen(short[] p) {
+        int[] wide = new int[p.length];
+        for (int i = 0; i < p.length; i++) {
+            wide[i] = Short.toUnsignedInt(p[i]);
+        }
+        return wide;
+    }
+
+    /**
+     * setChannel rebuilds the branch metric tables for a BPSK/AWGN channel at the
+     * given Eb/N0. The decoder is not very sensitive to this value, but a design point
+     * far above the real one makes it give up on paths too eagerly.
+     * @param ebN0   Eb/N0 in dB the metrics are designed for
+     */
+    public void setChannel(double ebN0) {
+        double rate = 1.0 / rate_U;
+        double esN0 = Math.pow(10.0, ebN0 / 10.0) * rate;
+        // soft symbols map -1.0..1.0 to 0..255, so the noise is relative to a unit amplitude
+        double variance = 1.0 / (2.0 * esN0);
+        for (int s = 0; s < 256; s++) {
+            double y = (s - 127.5) / 127.5;
+            double l0 = -(y + 1.0) * (y + 1.0) / (2.0 * variance);
+            double l1 = -(y - 1.0) * (y - 1.0) / (2.0 * variance);
+            double lmax = Math.max(l0, l1);
+            double lsum = lmax + Math.log(Math.exp(l0 - lmax) + Math.exp(l1 - lmax));
+            // log2(p(y|b) / p(y)) - R, with p(y) = (p(y|0) + p(y|1)) / 2
+            softMetric[0][s] = (int) Math.round(METRIC_SCALE * (1.0 + (l0 - lsum) / Math.log(2.0) - rate));
+            softMetric[1][s] = (int) Math.round(METRIC_SCALE * (1.0 + (l1 - lsum) / Math.log(2.0) - rate));
+        }
+
+        // hard decisions see a binary symmetric channel
+        double crossover = 0.5 * erfc(Math.sqrt(esN0));
+        int agree = (int) Math.round(METRIC_SCALE * (Math.log(2.0 * (1.0 - crossover)) / Math.log(2.0) - rate));
+        int disagree = (int) Math.round(METRIC_SCALE * (Math.log(2.0 * crossover) / Math.log(2.0) - rate));
+        for (int s = 0; s < 256; s++) {
+            hardMetric[0][s] = s > 127 ? disagree : agree;
+            hardMetric[1][s] = s > 127 ? agree : disagree;
+        }
+
+        // a few branches worth of a clean path
+        delta = (int) Math.round(METRIC_SCALE * 2.0 * (1.0 - rate) * rate_U);
+    }
+
+    /**
+     * setComputationBudget limits how much work a block may take before the decoder
+     * gives up and reports a failure. One cycle is one forward or backward move.
+     * @param cyclesPerBit   allowed cycles per decoded bit, the budget of a block is this
+     *                       times the number of bits in it
+     * @throws IllegalArgumentException if cyclesPerBit is not positive
+     */
+    public void setComputationBudget(int cyclesPerBit) throws IllegalArgumentException {
+        if (cyclesPerBit < 1) {
+            throw new IllegalArgumentException("SequentialDecoder: computation budget must be at least one cycle per bit");
+        }
+        this.cyclesPerBit = cyclesPerBit;
+    }
+
+    /**
+     * @return number of cycles the last decode took
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    public long encodeLen(long msgLen) {
+        long msgbits = 8 * msgLen;
+        return rate_U * (msgbits + order_U + 1);
+    }
+
+    /**
+     * Encode a block of data, the layout is the same as Convolutional.encode
+     * @param msg   a message to encode
+     * @return      encoded message
+     */
+    public byte[] encode(byte[] msg) {
+        long encodedLenBits = encodeLen(msg.length);
+        byte[] encoded = new byte[(int) ((encodedLenBits + 7) / 8)];
+        BitWriter bitWriter = new BitWriter(encoded, encoded.length);
+        BitReader bitReader = new BitReader(msg, msg.length);
+
+        int shiftregister_U = 0;
+        for (long i = 0; i < 8L * msg.length; i++) {
+            shiftregister_U = (shiftregister_U << 1 | bitReader.read(1)) & shiftmask_U;
+            bitWriter.write((byte) output(shiftregister_U), rate_U);
+        }
+        for (int i = 0; i < order_U + 1; i++) {
+            shiftregister_U = shiftregister_U << 1 & shiftmask_U;
+            bitWriter.write((byte) output(shiftregister_U), rate_U);
+        }
+        bitWriter.flushByte();
+        return encoded;
+    }
+
+    /**
+     * Decode hard decision bits produced by encode or Convolutional.encode
+     * @param encoded         packed encoded bits
+     * @param numEncodedBits  length of encoded in *bits*, a multiple of the inv_rate
+     * @return  decoded message or null if the computation budget ran out
+     * @throws IllegalArgumentException if numEncodedBits is not a multiple of the rate, is
+     *                                  shorter than the code tail or longer than encoded
+     */
+    public byte[] decode(byte[] encoded, long numEncodedBits) throws IllegalArgumentException {
+        if (numEncodedBits < 0 || 8L * encoded.length < numEncodedBits) {
+            throw new IllegalArgumentException("SequentialDecoder: encoded must hold numEncodedBits bits");
+        }
+        byte[] soft = new byte[(int) numEncodedBits];
+        for (int i = 0; i < numEncodedBits; i++) {
+            soft[i] = (byte) ((encoded[i >>> 3] << (i & 7) & 0x80) != 0 ? 255 : 0);
+        }
+        return fano(soft, numEncodedBits, hardMetric);
+    }
+
+    /**
+     * Decode soft symbols, 1 mapped to 255 and 0 to 0, like Convolutional.decodeSoft
+     * @param soft            soft symbols, one per encoded bit
+     * @param numEncodedBits  number of symbols, a multiple of the inv_rate
+     * @return  decoded message or null if the computation budget ran out
+     * @throws IllegalArgumentException if numEncodedBits is not a multiple of the rate, is
+     *                                  shorter than the code tail or longer than soft
+     */
+    public byte[] decodeSoft(byte[] soft, long numEncodedBits) throws IllegalArgumentException {
+        if (numEncodedBits < 0 || soft.length < numEncodedBits) {
+            throw new IllegalArgumentException("SequentialDecoder: soft must hold numEncodedBits symbols");
+        }
+        return fano(soft, numEncodedBits, softMetric);
+    }
+
+    private int output(int shiftregister_U) {
+        int out_U = 0;
+        for (int j = 0; j < rate_U; j++) {
+            out_U |= (Integer.bitCount(shiftregister_U & poly_U[j]) & 1) << j;
+        }
+        return out_U;
+    }
+
+    private int branchMetric(int shiftregister_U, byte[] soft, int offset, int[][] metric) {
+        int m = 0;
+        for (int j = 0; j < rate_U; j++) {
+            int bit = Integer.bitCount(shiftregister_U & poly_U[j]) & 1;
+            m += metric[bit][Byte.toUnsignedInt(soft[offset + j])];
+        }
+        return m;
+    }
+
+    // compute and sort the two branches leaving node k, tail nodes only have the 0 branch
+    private void expand(int k, int tail, byte[] soft, int[][] metric) {
+        int base_U = (k == 0 ? 0 : encstate_U[k - 1] << 1) & shiftmask_U;
+        int m0 = branchMetric(base_U, soft, k * rate_U, metric);
+        if (k >= tail) {
+            bestMetric[k] = m0;
+            encstate_U[k] = base_U;
+        } else {
+            int m1 = branchMetric(base_U | 1, soft, k * rate_U, metric);
+            if (m0 >= m1) {
+                bestMetric[k] = m0;
+                secondMetric[k] = m1;
+                encstate_U[k] = base_U;
+            } else {
+                bestMetric[k] = m1;
+                secondMetric[k] = m0;
+                encstate_U[k] = base_U | 1;
+            }
+        }
+        branch_U[k] = 0;
+    }
+
+    private byte[] fano(byte[] soft, long numEncodedBits, int[][] metric) throws IllegalArgumentException {
+        if (Long.remainderUnsigned(numEncodedBits, rate_U) != 0) {
+            throw new IllegalArgumentException("SequentialDecoder: encoded length of message must be a multiple of rate");
+        }
+        int nodes = (int) (numEncodedBits / rate_U);
+        int tail = nodes - (order_U + 1);
+        if (tail < 0) {
+            throw new IllegalArgumentException("SequentialDecoder: encoded message is shorter than the code tail");
+        }
+        if (encstate_U.length < nodes + 1) {
+            encstate_U = new int[nodes + 1];
+            gamma = new int[nodes + 1];
+            bestMetric = new int[nodes + 1];
+            secondMetric = new int[nodes + 1];
+            branch_U = new byte[nodes + 1];
+        }
+
+        long maxCycles = (long) cyclesPerBit * nodes;
+        int t = 0;
+        int k = 0;
+        gamma[0] = 0;
+        expand(0, tail, soft, metric);
+        for (cycles = 1; ; cycles++) {
+            if (cycles > maxCycles) {
+                // out of budget, let the caller fall back or drop the frame
+                return null;
+            }
+            // look forward
+            int lim = gamma[k] + (branch_U[k] == 0 ? bestMetric[k] : secondMetric[k]);
+            if (lim >= t) {
+                if (gamma[k] < t + delta) {
+                    // first time we've visited this node, tighten the threshold
+                    while (lim >= t + delta) {
+                        t += delta;
+                    }
+                }
+                gamma[k + 1] = lim;
+                if (++k == nodes) {
+                    break;
+                }
+                expand(k, tail, soft, metric);
+                continue;
+            }
+            // threshold violated, can't go forward
+            for (;;) {
+                // look backward
+                if (k == 0 || gamma[k - 1] < t) {
+                    // can't back up either, relax the threshold and look forward again
+                    // from the best branch
+                    t -= delta;
+                    if (branch_U[k] != 0) {
+                        branch_U[k] = 0;
+                        encstate_U[k] ^= 1;
+                    }
+                    break;
+                }
+                // back up, and try the next best branch if there is one
+                if (--k < tail && branch_U[k] == 0) {
+                    branch_U[k] = 1;
+                    encstate_U[k] ^= 1;
+                    break;
+                }
+            }
+        }
+
+        // the decoded bits are the newest bits of the register at every message node
+        byte[] msg = new byte[tail / 8];
+        for (int i = 0; i < msg.length * 8; i++) {
+            msg[i >>> 3] |= (byte) ((encstate_U[i] & 1) << (7 - (i & 7)));
+        }
+        return msg;
+    }
+
+    // complementary error function, Numerical Recipes erfcc (fractional error below 1.2e-7)
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1.0 / (1.0 + 0.5 * z);
+        double ans = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+                t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 +
+                t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? ans : 2.0 - ans;
+    }
+}
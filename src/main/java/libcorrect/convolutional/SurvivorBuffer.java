@@ -0,0 +1,97 @@
+/*
+ * libcorrect4j
+ * SurvivorBuffer.java
+ */
+package libcorrect.convolutional;
+
+// keeps the survivor path decisions of the Viterbi decoder and turns them into output bits
+public abstract class SurvivorBuffer {
+    // how many states in the shift register?
+    protected int numStates_U;
+    // what's the high order bit of the shift register?
+    protected int highbit_U;
+    // how often should we renormalize?
+    protected int renormalizeInterval_U;
+    protected int renormalizeCounter_U;
+    // how much the path metrics have been lowered by renormalizing since the last reset,
+    //  i.e. how much the best path metric has grown
+    private long metricGrowth_U;
+    private int renormalizations_U;
+
+    protected SurvivorBuffer(int renormalizeInterval_U, int numStates_U, int highbit_U) {
+        this.numStates_U = numStates_U;
+        this.highbit_U = highbit_U;
+        this.renormalizeCounter_U = 0;
+        this.renormalizeInterval_U = renormalizeInterval_U;
+    }
+
+    public void reset() {
+        metricGrowth_U = 0;
+        renormalizations_U = 0;
+    }
+
+    /**
+     * @return the amount subtracted from the path metrics by renormalize since the last reset
+     */
+    public long metricGrowth() {
+        return metricGrowth_U;
+    }
+
+    /**
+     * @return how many times renormalize ran since the last reset
+     */
+    public int renormalizations() {
+        return renormalizations_U;
+    }
+
+    /**
+     * @return the decisions of the time slice being computed, one entry per state
+     */
+    public abstract byte[] getSlice();
+
+    /**
+     * @return metric differences of the time slice being computed, or null if they are not kept
+     */
+    public short[] getDeltaSlice() {
+        return null;
+    }
+
+    /**
+     * Takes in the slice filled by the decoder and emits whatever bits became final
+     * @param distances_U  path metrics of the slice, one entry per state
+     * @param output       where decoded bits go
+     * @param skip_U       only every skip-th state is valid (the trellis is closing)
+     */
+    public abstract void processSkip(short[] distances_U, BitWriter output, int skip_U);
+
+    public void process(short[] distances_U, BitWriter output) {
+        processSkip(distances_U, output, 1);
+    }
+
+    /**
+     * Emits everything still held, following the path that ends in state 0
+     */
+    public abstract void flush(BitWriter output);
+
+    public int search(short[] distances_U, int searchEvery_U) {
+        int bestpath_U = 0;
+        int leasterror_U = Integer.MAX_VALUE;
+        // search for a state with the least error
+        for(int state_U = 0; Integer.compareUnsigned(state_U, numStates_U) < 0; state_U += searchEvery_U) {
+            if(Integer.compareUnsigned(Short.toUnsignedInt(distances_U[state_U]), leasterror_U) < 0) {
+                leasterror_U = distances_U[state_U];
+                bestpath_U = state_U;
+            }
+        }
+        return bestpath_U;
+    }
+
+    public void renormalize(short[] distances_U, int minRegister_U) {
+        short minDistance_U = distances_U[minRegister_U];
+        metricGrowth_U += Short.toUnsignedLong(minDistance_U);
+        renormalizations_U++;
+        for(int i = 0; Integer.compareUnsigned(i, numStates_U) < 0; i++) {
+            distances_U[i] = (short)(Short.toUnsignedInt(distances_U[i]) - Short.toUnsignedInt(minDistance_U));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * libcorrect4j
+ * Synchronizer.java
+ */
+
+package libcorrect.convolutional;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds the symbol alignment (node sync) and phase of a convolutionally encoded stream.
+ * Every rate offset, with and without inverted symbols, is decoded concurrently on
+ * its own copy of the code. While decoding, the decoders report the growth of their
+ * best path metric each time they renormalize; on the right hypothesis the metric only
+ * grows with the channel noise, on the wrong ones it grows much faster. Hypotheses
+ * whose growth rate exceeds the best one by more than the margin are abandoned, the
+ * one with the smallest final growth rate is returned.
+ */
+public class Synchronizer {
+    private final static double DEFAULT_MARGIN = 1.5;
+
+    private final Convolutional code;
+    private final int rate_U;
+    private final Executor executor;
+    private double margin = DEFAULT_MARGIN;
+
+    /**
+     * One alignment/phase guess and, once decoded, how well it fits the code
+     */
+    public static class Hypothesis {
+        private final int offset;
+        private final boolean inverted;
+        private byte[] decoded;
+        private double metricRate;
+
+        Hypothesis(int offset, boolean inverted) {
+            this.offset = offset;
+            this.inverted = inverted;
+        }
+
+        /**
+         * @return number of symbols to skip at the start of the stream
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return whether symbols have to be inverted (0 and 1 swapped)
+         */
+        public boolean isInverted() {
+            return inverted;
+        }
+
+        /**
+         * @return message decoded under this hypothesis
+         */
+        public byte[] getDecoded() {
+            return decoded;
+        }
+
+        /**
+         * @return path metric growth per time slice, smaller is better
+         */
+        public double getMetricRate() {
+            return metricRate;
+        }
+    }
+
+    /**
+     * @param code  the code of the stream, it is not used for decoding itself
+     */
+    public Synchronizer(Convolutional code) {
+        this(code, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param code      the code of the stream, it is not used for decoding itself
+     * @param executor  runs the hypotheses
+     */
+    public Synchronizer(Convolutional code, Executor executor) {
+        this.code = code;
+        this.rate_U = code.getRate();
+        this.executor = executor;
+    }
+
+    /**
+     * setMargin sets how much faster than the best one the metric of a hypothesis may
+     * grow before it is abandoned
+     * @param margin  ratio of growth rates, greater than 1
+     */
+    public void setMargin(double margin) {
+        if (!(margin > 1.0)) {
+            throw new IllegalArgumentException("Synchronizer: margin must be greater than 1");
+        }
+        this.margin = margin;
+    }
+
+    /**
+     * Acquire a stream of hard decision bits
+     * @param encoded         packed bits, starting anywhere in the stream
+     * @param numEncodedBits  number of bits in encoded
+     * @return  the best hypothesis, with its decoded message
+     * @throws IllegalArgumentException if numEncodedBits is negative or exceeds the bits in
+     *                                  encoded, or there are too few bits to decode
+     */
+    public Hypothesis acquire(byte[] encoded, long numEncodedBits) throws IllegalArgumentException {
+        if (numEncodedBits < 0 || numEncodedBits > 8L * encoded.length) {
+            throw new IllegalArgumentException("Synchronizer: encoded must hold numEncodedBits bits");
+        }
+        byte[] soft = new byte[(int) numEncodedBits];
+        for (int i = 0; i < numEncodedBits; i++) {
+            soft[i] = (byte) ((encoded[i >>> 3] << (i & 7) & 0x80) != 0 ? 255 : 0);
+        }
+        return acquireSoft(soft, numEncodedBits);
+    }
+
+    /**
+     * Acquire a stream of soft symbols, 1 mapped to 255 and 0 to 0
+     * @param soft        soft symbols, starting anywhere in the stream
+     * @param numSymbols  number of symbols in soft
+     * @return  the best hypothesis, with its decoded message
+     * @throws IllegalArgumentException if there are too few symbols to decode
+     */
+    public Hypothesis acquireSoft(byte[] soft, long numSymbols) throws IllegalArgumentException {
+        if (numSymbols < (long) rate_U * (2 * code.getOrder() + rate_U)) {
+            throw new IllegalArgumentException("Synchronizer: too few symbols to acquire");
+        }
+        Hypothesis[] hypotheses = new Hypothesis[2 * rate_U];
+        Scoreboard scoreboard = new Scoreboard(hypotheses.length, margin);
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[hypotheses.length];
+        for (int h = 0; h < hypotheses.length; h++) {
+            Hypothesis hypothesis = new Hypothesis(h >>> 1, (h & 1) != 0);
+            hypotheses[h] = hypothesis;
+            int index = h;
+            tasks[h] = CompletableFuture.runAsync(() -> decode(hypothesis, index, soft, numSymbols, scoreboard), executor);
+        }
+        CompletableFuture.allOf(tasks).join();
+
+        Hypothesis best = null;
+        for (Hypothesis hypothesis : hypotheses) {
+            if (hypothesis.decoded != null && (best == null || hypothesis.metricRate < best.metricRate)) {
+                best = hypothesis;
+            }
+        }
+        return best;
+    }
+
+    private void decode(Hypothesis hypothesis, int index, byte[] soft, long numSymbols, Scoreboard scoreboard) {
+        long sets_U = (numSymbols - hypothesis.offset) / rate_U;
+        byte[] aligned = new byte[(int) (sets_U * rate_U)];
+        for (int i = 0; i < aligned.length; i++) {
+            int symbol_U = Byte.toUnsignedInt(soft[hypothesis.offset + i]);
+            aligned[i] = (byte) (hypothesis.inverted ? 255 - symbol_U : symbol_U);
+        }
+
+        Convolutional decoder = new Convolutional(code);
+        decoder.setMetricCheckpoint((slice_U, metricGrowth_U) -> scoreboard.report(index, slice_U, metricGrowth_U));
+        byte[] decoded = decoder.decodeSoft(aligned, aligned.length);
+        if (decoded != null) {
+            hypothesis.metricRate = scoreboard.rate(index);
+            hypothesis.decoded = decoded;
+        }
+    }
+
+    // latest growth rate of every hypothesis, shared by the decoding threads
+    private static class Scoreboard {
+        private final double[] rate;
+        private final boolean[] abandoned;
+        private final double margin;
+
+        Scoreboard(int hypotheses, double margin) {
+            this.rate = new double[hypotheses];
+            this.abandoned = new boolean[hypotheses];
+            this.margin = margin;
+            Arrays.fill(rate, Double.NaN);
+        }
+
+        synchronized boolean report(int index, int slice_U, long metricGrowth_U) {
+            if (abandoned[index]) {
+                return false;
+            }
+            rate[index] = (double) metricGrowth_U / slice_U;
+
+            double best = Double.POSITIVE_INFINITY;
+            for (int h = 0; h < rate.length; h++) {
+                if (!abandoned[h] && rate[h] < best) {
+                    best = rate[h];
+                }
+            }
+            for (int h = 0; h < rate.length; h++) {
+                if (!abandoned[h] && rate[h] > best * margin) {
+                    abandoned[h] = true;
+                }
+            }
+            return !abandoned[index];
+        }
+
+        synchronized double rate(int index) {
+            return rate[index];
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * libcorrect4j
+ * BatchDecoder.java
+ */
+
+package libcorrect.reed_solomon;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes many blocks of one code in parallel on a ForkJoinPool.
+ * The blocks are split into ranges that the workers decode with the shared code and a
+ * workspace of their own, kept per worker thread, so after the first batch no memory is
+ * allocated and nothing is written but the workspaces and the output buffers.
+ */
+public class BatchDecoder {
+    // blocks per task below which the range is not split any further
+    private final static int MIN_BLOCKS_PER_TASK = 64;
+
+    private final ReedSolomonCode code;
+    private final int numRoots;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<RsWorkspace> workerWorkspace;
+
+    /**
+     * @param code  the code of the blocks, only its tables are used
+     */
+    public BatchDecoder(ReedSolomon code) {
+        this(code.getCode(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param code  the code of the blocks
+     */
+    public BatchDecoder(ReedSolomonCode code) {
+        this(code, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param code  the code of the blocks
+     * @param pool  runs the decoding
+     */
+    public BatchDecoder(ReedSolomonCode code, ForkJoinPool pool) {
+        this.code = code;
+        this.numRoots = code.getNumRoots();
+        this.pool = pool;
+        this.workerWorkspace = ThreadLocal.withInitial(() -> new RsWorkspace(code));
+    }
+
+    /**
+     * decode decodes count blocks, block i in encoded[i * stride..i * stride + encodedLength),
+     * and writes their payloads back to back to msg, payload i at i * (encodedLength - numRoots).
+     * @param encoded        holds the blocks
+     * @param count          number of blocks
+     * @param encodedLength  length of every block, at most 255
+     * @param stride         distance between the starts of blocks, at least encodedLength
+     * @param msg            receives count * (encodedLength - numRoots) bytes
+     * @param corrected      receives for every block the number of corrected bytes, or -1 if
+     *                       it could not be recovered (its payload is then left as received)
+     * @return number of blocks that could not be recovered
+     * @throws IllegalArgumentException if the lengths do not fit the code or the buffers
+     */
+    public int decode(byte[] encoded, int count, int encodedLength, int stride, byte[] msg, int[] corrected)
+            throws IllegalArgumentException {
+        int msgLength = encodedLength - numRoots;
+        if (encodedLength > 255 || msgLength < 0 || stride < encodedLength) {
+            throw new IllegalArgumentException("BatchDecoder: block length must be between numRoots and 255, and at most stride");
+        }
+        if (count > 0 && ((long) (count - 1) * stride + encodedLength > encoded.length ||
+                (long) count * msgLength > msg.length || count > corrected.length)) {
+            throw new IllegalArgumentException("BatchDecoder: buffers too small for " + count + " blocks");
+        }
+        pool.invoke(new DecodeRange(encoded, encodedLength, stride, msg, corrected, 0, count));
+
+        int failed = 0;
+        for (int i = 0; i < count; i++) {
+            if (corrected[i] < 0) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private class DecodeRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] encoded;
+        private final int encodedLength;
+        private final int stride;
+        private final byte[] msg;
+        private final int[] corrected;
+        private final int from;
+        private final int to;
+
+        DecodeRange(byte[] encoded, int encodedLength, int stride, byte[] msg, int[] corrected, int from, int to) {
+            this.encoded = encoded;
+            this.encodedLength = encodedLength;
+            this.stride = stride;
+            this.msg = msg;
+            this.corrected = corrected;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_BLOCKS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DecodeRange(encoded, encodedLength, stride, msg, corrected, from, middle),
+                        new DecodeRange(encoded, encodedLength, stride, msg, corrected, middle, to));
+                return;
+            }
+            RsWorkspace ws = workerWorkspace.get();
+            int msgLength = encodedLength - numRoots;
+            for (int i = from; i < to; i++) {
+                int offset = i * stride;
+                int result = code.decode(ws, encoded, offset, encodedLength, msg, i * msgLength);
+                if (result < 0) {
+                    System.arraycopy(encoded, offset, msg, i * msgLength, msgLength);
+                }
+                corrected[i] = result;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * libcorrect4j
+ * ErasurePattern.java
+ */
+
+package libcorrect.reed_solomon;
+
+import java.util.Arrays;
+
+/**
+ * What decoding a set of erasure positions needs that does not depend on the received
+ * bytes: the erasure locator, to check that the erasures explain all syndromes, and
+ * the matrix that turns the first numErasures syndromes into the erased values. That
+ * matrix folds the error evaluator and Forney's denominators together, so a block with
+ * a known pattern costs its syndromes plus a small matrix-vector product.
+ *
+ * Patterns are keyed by the block length and the erasure locations in the order given.
+ */
+final class ErasurePattern {
+    // key, the locations are only borrowed while probing
+    int encodedLength;
+    byte[] locations;
+    int numErasures;
+    private int hash;
+
+    // false if a location is listed twice, such a pattern cannot be decoded
+    boolean valid;
+    // erasure locator, numErasures + 1 coefficients
+    byte[] gamma;
+    // index into the block of every erasure
+    int[] index;
+    // row k gives erased value k from syndromes 0..numErasures-1
+    byte[] matrix;
+
+    /**
+     * probe points this pattern at the key of a lookup, without copying
+     */
+    ErasurePattern probe(int encodedLength, byte[] locations, int numErasures) {
+        this.encodedLength = encodedLength;
+        this.locations = locations;
+        this.numErasures = numErasures;
+        int h = encodedLength;
+        for (int k = 0; k < numErasures; k++) {
+            h = 31 * h + locations[k];
+        }
+        hash = h;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ErasurePattern)) {
+            return false;
+        }
+        ErasurePattern p = (ErasurePattern) o;
+        return encodedLength == p.encodedLength && numErasures == p.numErasures && hash == p.hash &&
+                Arrays.equals(locations, 0, numErasures, p.locations, 0, numErasures);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -7,8 +7,19 @@
 package libcorrect.reed_solomon;
 
 public class Field {
-    private byte[] expTable;
-    private byte[] logTable;
+    // ways to multiply and divide, all give the same results
+    // log/exp tables, branching on zero operands (the default)
+    public static final int CORRECT_FIELD_LOG_EXP = 0;
+    // a 256 x 256 product table
+    public static final int CORRECT_FIELD_PRODUCT_TABLE = CORRECT_FIELD_LOG_EXP + 1;
+    // int log tables with a sentinel for log(0), no zero branches
+    public static final int CORRECT_FIELD_SENTINEL_LOG = CORRECT_FIELD_PRODUCT_TABLE + 1;
+    // 4 bit split tables, products of every element with both nibbles
+    public static final int CORRECT_FIELD_SPLIT_NIBBLE = CORRECT_FIELD_SENTINEL_LOG + 1;
+
+    private final byte[] expTable;
+    private final byte[] logTable;
+    private final FieldEngine engine;
 
     public byte exp(int i) {
         return expTable[i];
@@ -19,6 +30,18 @@ public class Field {
     }
 
     public Field(short primitivePoly) {
+        this(primitivePoly, CORRECT_FIELD_LOG_EXP);
+    }
+
+    /**
+     * @param primitivePoly  primitive polynomial of the field
+     * @param engine         how fieldMul, fieldDiv and the bulk operations are computed, one of
+     *                       CORRECT_FIELD_LOG_EXP, CORRECT_FIELD_PRODUCT_TABLE,
+     *                       CORRECT_FIELD_SENTINEL_LOG or CORRECT_FIELD_SPLIT_NIBBLE.
+     *                       Which one is fastest depends on the CPU.
+     * @throws IllegalArgumentException if the engine is unknown
+     */
+    public Field(short primitivePoly, int engine) throws IllegalArgumentException {
         // in GF(2^8)
         // log and exp
         // bits are in GF(2), compute alpha^val in GF(2^8)
@@ -49,6 +72,27 @@ public class Field {
                 logTable[Short.toUnsignedInt(element)] =(byte) i;
             }
         }
+
+        switch (engine) {
+            case CORRECT_FIELD_LOG_EXP:
+                this.engine = new LogExpEngine(expTable, logTable);
+                break;
+            case CORRECT_FIELD_PRODUCT_TABLE:
+                this.engine = new ProductTableEngine(expTable, logTable);
+                break;
+            case CORRECT_FIELD_SENTINEL_LOG:
+                this.engine = new SentinelLogEngine(expTable, logTable);
+                break;
+            case CORRECT_FIELD_SPLIT_NIBBLE:
+                this.engine = new SplitNibbleEngine(expTable, logTable);
+                break;
+            default:
+                throw new IllegalArgumentException("Field: unknown engine " + engine);
+        }
+    }
+
+    public FieldEngine getEngine() {
+        return engine;
     }
 
     public byte fieldMulLogElement(byte l, byte r) {
@@ -84,43 +128,25 @@ public class Field {
     }
 
     public byte fieldMul(byte l, byte r) {
-        if(Byte.toUnsignedInt(l) == 0 || Byte.toUnsignedInt(r) == 0) {
-            return 0;
-        }
-        // multiply two field elements by adding their logarithms.
-        // yep, get your slide rules out
-        short res = (short)(Short.toUnsignedInt((short)Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(l)])) +
-                              Short.toUnsignedInt((short)Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(r)])));
-
-        // if coeff exceeds 255, we would normally have to wrap it back around
-        // alpha^255 = 1; alpha^256 = alpha^255 * alpha^1 = alpha^1
-        // however, we've constructed exponentiation table so that
-        //   we can just directly lookup this result
-        // the result must be clamped to [0, 511]
-        // the greatest we can see at this step is alpha^255 * alpha^255
-        //   = alpha^510
-        return expTable[Short.toUnsignedInt(res)];
+        return engine.mul(l, r);
     }
 
     public byte fieldDiv(byte l, byte r) {
-        if(Byte.toUnsignedInt(l) == 0) {
-            return 0;
-        }
-
-        if(Byte.toUnsignedInt(r) == 0) {
-            // XXX ???
-            throw new IllegalArgumentException("fieldDiv: illegal dividor r==0");
-        }
+        return engine.div(l, r);
+    }
 
-        // division as subtraction of logarithms
+    /**
+     * dst[dstOffset + i] = src[srcOffset + i] * c for i in [0, len)
+     */
+    public void fieldMulConst(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        engine.mulConst(src, srcOffset, c, dst, dstOffset, len);
+    }
 
-        // if rcoeff is larger, then log[l] - log[r] wraps under
-        // so, instead, always add 255. in some cases, we'll wrap over, but
-        // that's ok because the exp table runs up to 511.
-        short res = (short)(Short.toUnsignedInt((short)255) +
-                              Short.toUnsignedInt((short)Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(l)])) -
-                              Short.toUnsignedInt((short)Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(r)])));
-        return expTable[Short.toUnsignedInt(res)];
+    /**
+     * dst[dstOffset + i] += src[srcOffset + i] * c for i in [0, len)
+     */
+    public void fieldMulConstAdd(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        engine.mulConstAdd(src, srcOffset, c, dst, dstOffset, len);
     }
 
     public byte fieldMulLog(byte l, byte r) {
@@ -0,0 +1,43 @@
+/*
+ * libcorrect4j
+ * FieldEngine.java
+ */
+
+package libcorrect.reed_solomon;
+
+// multiplication and division in GF(2^8), see Field for the ways to do it.
+// engines are read-only after construction and can be shared between threads
+public abstract class FieldEngine {
+    // alpha^i for i in [0, 511] and log of every nonzero element, as built by Field
+    protected final byte[] expTable;
+    protected final byte[] logTable;
+
+    protected FieldEngine(byte[] expTable, byte[] logTable) {
+        this.expTable = expTable;
+        this.logTable = logTable;
+    }
+
+    public abstract byte mul(byte l, byte r);
+
+    /**
+     * @throws IllegalArgumentException if r is 0
+     */
+    public abstract byte div(byte l, byte r) throws IllegalArgumentException;
+
+    /**
+     * dst[dstOffset + i] = src[srcOffset + i] * c for i in [0, len)
+     */
+    public abstract void mulConst(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len);
+
+    /**
+     * dst[dstOffset + i] += src[srcOffset + i] * c for i in [0, len)
+     */
+    public abstract void mulConstAdd(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len);
+
+    protected byte inverse(byte r) throws IllegalArgumentException {
+        if (r == 0) {
+            throw new IllegalArgumentException("fieldDiv: illegal dividor r==0");
+        }
+        return expTable[255 - Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(r)])];
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * libcorrect4j
+ * GaloisField.java
+ */
+
+package libcorrect.reed_solomon;
+
+/**
+ * GF(2^m) for 3 &lt;= m &lt;= 16 with int symbols, for codes with blocks longer than 255
+ * symbols. GF(2^8) codes should keep using Field, whose byte tables and engines are
+ * specialized for it.
+ *
+ * Elements are ints in [0, 2^m). The log of 0 is stored as order (2^m - 1), and the exp
+ * table holds two periods so that the sum of two logs needs no modulo.
+ */
+public class GaloisField {
+    public static final int MIN_SYMBOL_SIZE = 3;
+    public static final int MAX_SYMBOL_SIZE = 16;
+
+    // a primitive polynomial for every m, indexed by m
+    private static final int[] DEFAULT_POLYNOMIALS = {
+            0, 0, 0,
+            0xb, 0x13, 0x25, 0x43, 0x89, 0x11d, 0x211, 0x409,
+            0x805, 0x1053, 0x201b, 0x4443, 0x8003, 0x1100b
+    };
+
+    private final int symbolSize;
+    private final int order;
+    private final int primitivePolynomial;
+    private final int[] expTable;
+    private final int[] logTable;
+
+    /**
+     * @param symbolSize  m, bits per symbol
+     * @return the field with the default primitive polynomial of degree m
+     * @throws IllegalArgumentException if m is out of range
+     */
+    public static GaloisField ofSymbolSize(int symbolSize) throws IllegalArgumentException {
+        if (symbolSize < MIN_SYMBOL_SIZE || symbolSize > MAX_SYMBOL_SIZE) {
+            throw new IllegalArgumentException("GaloisField: symbol size must be between " + MIN_SYMBOL_SIZE +
+                    " and " + MAX_SYMBOL_SIZE);
+        }
+        return new GaloisField(symbolSize, DEFAULT_POLYNOMIALS[symbolSize]);
+    }
+
+    /**
+     * @param symbolSize           m, bits per symbol
+     * @param primitivePolynomial  primitive polynomial of degree m, including the x^m term
+     * @throws IllegalArgumentException if m is out of range or the polynomial is not primitive
+     */
+    public GaloisField(int symbolSize, int primitivePolynomial) throws IllegalArgumentException {
+        if (symbolSize < MIN_SYMBOL_SIZE || symbolSize > MAX_SYMBOL_SIZE) {
+            throw new IllegalArgumentException("GaloisField: symbol size must be between " + MIN_SYMBOL_SIZE +
+                    " and " + MAX_SYMBOL_SIZE);
+        }
+        if (primitivePolynomial >>> symbolSize != 1) {
+            throw new IllegalArgumentException("GaloisField: primitive polynomial must have degree " + symbolSize);
+        }
+        this.symbolSize = symbolSize;
+        this.order = (1 << symbolSize) - 1;
+        this.primitivePolynomial = primitivePolynomial;
+        expTable = new int[2 * order];
+        logTable = new int[order + 1];
+
+        // walk the powers of alpha. if alpha returns to 1 before all nonzero elements were
+        // seen, the polynomial is not primitive
+        logTable[0] = order;
+        int element = 1;
+        for (int i = 0; i < order; i++) {
+            if (element == 1 && i > 0) {
+                throw new IllegalArgumentException("GaloisField: polynomial is not primitive");
+            }
+            expTable[i] = element;
+            expTable[i + order] = element;
+            logTable[element] = i;
+            element <<= 1;
+            if (element > order) {
+                element ^= primitivePolynomial;
+            }
+        }
+    }
+
+    /**
+     * @return m, bits per symbol
+     */
+    public int getSymbolSize() {
+        return symbolSize;
+    }
+
+    /**
+     * @return number of nonzero elements, 2^m - 1, which is also the block length of a
+     * full Reed-Solomon code over this field
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    public int getPrimitivePolynomial() {
+        return primitivePolynomial;
+    }
+
+    /**
+     * @return alpha^i for 0 &lt;= i &lt; 2 * order
+     */
+    public int exp(int i) {
+        return expTable[i];
+    }
+
+    /**
+     * @return the log of a nonzero element, or order for 0
+     */
+    public int log(int element) {
+        return logTable[element];
+    }
+
+    public int mul(int a, int b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        return expTable[logTable[a] + logTable[b]];
+    }
+
+    /**
+     * @return a / b, or 0 if a is 0
+     * @throws IllegalArgumentException if b is 0
+     */
+    public int div(int a, int b) throws IllegalArgumentException {
+        if (b == 0) {
+            throw new IllegalArgumentException("GaloisField.div: illegal divisor 0");
+        }
+        if (a == 0) {
+            return 0;
+        }
+        return expTable[logTable[a] + order - logTable[b]];
+    }
+
+    /**
+     * @return a^pow, pow may be negative
+     */
+    public int pow(int a, int pow) {
+        if (a == 0) {
+            return pow == 0 ? 1 : 0;
+        }
+        int log = (int) ((long) logTable[a] * pow % order);
+        if (log < 0) {
+            log += order;
+        }
+        return expTable[log];
+    }
+
+    /**
+     * @return alpha^i for any i, negative or not smaller than order
+     */
+    public int alphaPow(long i) {
+        int log = (int) (i % order);
+        if (log < 0) {
+            log += order;
+        }
+        return expTable[log];
+    }
+}
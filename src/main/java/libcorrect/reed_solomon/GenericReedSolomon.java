@@ -0,0 +1,432 @@
+/*
+ * libcorrect4j
+ * GenericReedSolomon.java
+ */
+
+package libcorrect.reed_solomon;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reed-Solomon over any GaloisField, GF(2^3) up to GF(2^16), with int symbols and blocks
+ * of up to 2^m - 1 symbols, e.g. 65535 for archival storage. GF(2^8) codes should use
+ * ReedSolomon, which is specialized for byte symbols.
+ *
+ * Blocks are ordered like ReedSolomon's, highest order coefficient first, the payload
+ * followed by numRoots parity symbols. Shorter blocks are shortened codes with virtual
+ * leading zeros. Decoding corrects the block in place.
+ *
+ * On large blocks syndromes are computed for ranges of roots, and the Chien search for
+ * ranges of positions, in parallel on a ForkJoinPool. An instance holds the scratch space
+ * of one decode and must not be used by two threads at the same time.
+ */
+public class GenericReedSolomon {
+    // symbol operations below which a syndrome or chien pass is not split into tasks
+    private final static long MIN_PARALLEL_WORK = 1 << 18;
+    private final static int MIN_POSITIONS_PER_TASK = 4096;
+
+    private final GaloisField field;
+    private final int order;
+    private final int blockLength;
+    private final int numRoots;
+    private final int firstConsecutiveRoot;
+    private final int generatorRootGap;
+    private final ForkJoinPool pool;
+    // log of generator coefficient x^(numRoots - 1 - k) at k, order for 0
+    private final int[] generatorLog;
+    // log of root i of the generator, gap * (fcr + i)
+    private final int[] rootLog;
+
+    // decoding scratch
+    private final int[] syndromes;
+    private final int[] lambda;
+    private final int[] previous;
+    private final int[] temp;
+    private final int[] omega;
+    private final int[] errorPositions;
+    private final AtomicInteger numFound = new AtomicInteger();
+
+    /**
+     * @param field                 field of the symbols
+     * @param firstConsecutiveRoot
+     * @param generatorRootGap      Sane values for firstConsecutiveRoot and generatorRootGap are
+     *                              1 and 1. The gap must be coprime to 2^m - 1.
+     * @param numRoots              parity symbols per block, corrects numRoots/2 errors
+     * @throws IllegalArgumentException if numRoots does not fit the field or the gap is not coprime
+     */
+    public GenericReedSolomon(GaloisField field, int firstConsecutiveRoot, int generatorRootGap, int numRoots)
+            throws IllegalArgumentException {
+        this(field, firstConsecutiveRoot, generatorRootGap, numRoots, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like the constructor above
+     * @param pool  runs the parallel parts of decoding large blocks
+     */
+    public GenericReedSolomon(GaloisField field, int firstConsecutiveRoot, int generatorRootGap, int numRoots,
+                              ForkJoinPool pool) throws IllegalArgumentException {
+        this.field = field;
+        this.order = field.getOrder();
+        if (numRoots < 1 || numRoots >= order) {
+            throw new IllegalArgumentException("GenericReedSolomon: numRoots must be between 1 and " + (order - 1));
+        }
+        if (BigInteger.valueOf(generatorRootGap).gcd(BigInteger.valueOf(order)).intValue() != 1) {
+            throw new IllegalArgumentException("GenericReedSolomon: generator root gap must be coprime to " + order);
+        }
+        this.blockLength = order;
+        this.numRoots = numRoots;
+        this.firstConsecutiveRoot = firstConsecutiveRoot;
+        this.generatorRootGap = generatorRootGap;
+        this.pool = pool;
+
+        // g(x) = (x - root(0)) * ... * (x - root(numRoots - 1)), lowest order first
+        rootLog = new int[numRoots];
+        int[] generator = new int[numRoots + 1];
+        generator[0] = 1;
+        for (int i = 0; i < numRoots; i++) {
+            rootLog[i] = logOfAlphaPow((long) generatorRootGap * (firstConsecutiveRoot + i));
+            int root = field.exp(rootLog[i]);
+            for (int j = i + 1; j > 0; j--) {
+                generator[j] = generator[j - 1] ^ field.mul(root, generator[j]);
+            }
+            generator[0] = field.mul(root, generator[0]);
+        }
+        generatorLog = new int[numRoots];
+        for (int k = 0; k < numRoots; k++) {
+            generatorLog[k] = field.log(generator[numRoots - 1 - k]);
+        }
+
+        syndromes = new int[numRoots];
+        lambda = new int[numRoots + 1];
+        previous = new int[numRoots + 1];
+        temp = new int[numRoots + 1];
+        omega = new int[numRoots];
+        errorPositions = new int[numRoots];
+    }
+
+    public GaloisField getField() {
+        return field;
+    }
+
+    /**
+     * @return number of parity symbols per block
+     */
+    public int getNumRoots() {
+        return numRoots;
+    }
+
+    /**
+     * @return length of a full block, 2^m - 1
+     */
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    /**
+     * encode writes msg[msgOffset..msgOffset+msgLength) followed by its parity to encoded
+     * at encodedOffset. Symbols must be elements of the field.
+     * @throws IllegalArgumentException  if message length is larger than (block length - numRoots)
+     */
+    public void encode(int[] msg, int msgOffset, int msgLength, int[] encoded, int encodedOffset)
+            throws IllegalArgumentException {
+        if (msgLength > blockLength - numRoots) {
+            throw new IllegalArgumentException("GenericReedSolomon.encode: message length must be smaller than block length - numRoots");
+        }
+        // the parity register, leading coefficient first, as in LfsrEncoder
+        int[] register = new int[numRoots];
+        for (int i = msgOffset; i < msgOffset + msgLength; i++) {
+            int feedback = msg[i] ^ register[0];
+            System.arraycopy(register, 1, register, 0, numRoots - 1);
+            register[numRoots - 1] = 0;
+            if (feedback != 0) {
+                int feedbackLog = field.log(feedback);
+                for (int k = 0; k < numRoots; k++) {
+                    if (generatorLog[k] != order) {
+                        register[k] ^= field.exp(feedbackLog + generatorLog[k]);
+                    }
+                }
+            }
+        }
+        System.arraycopy(msg, msgOffset, encoded, encodedOffset, msgLength);
+        System.arraycopy(register, 0, encoded, encodedOffset + msgLength, numRoots);
+    }
+
+    /**
+     * @return msg followed by its parity
+     * @throws IllegalArgumentException  if message length is larger than (block length - numRoots)
+     */
+    public int[] encode(int[] msg) throws IllegalArgumentException {
+        int[] encoded = new int[msg.length + numRoots];
+        encode(msg, 0, msg.length, encoded, 0);
+        return encoded;
+    }
+
+    /**
+     * @return decoded message or null if the block is too corrupted and cannot be recovered
+     * @throws IllegalArgumentException  if encoded message length is larger than block length
+     */
+    public int[] decode(int[] encoded) throws IllegalArgumentException {
+        int[] block = encoded.clone();
+        if (decode(block, 0, block.length) < 0) {
+            return null;
+        }
+        int[] msg = new int[block.length - numRoots];
+        System.arraycopy(block, 0, msg, 0, msg.length);
+        return msg;
+    }
+
+    /**
+     * decode corrects the block in encoded[offset..offset+length) in place
+     * @return number of corrected symbols, or -1 if the block is too corrupted and cannot
+     *         be recovered, in which case it is left as received
+     * @throws IllegalArgumentException  if length is larger than block length
+     */
+    public int decode(int[] encoded, int offset, int length) throws IllegalArgumentException {
+        return decodeWithErasures(encoded, offset, length, null, 0);
+    }
+
+    /**
+     * decodeWithErasures corrects the block in encoded[offset..offset+length) in place,
+     * given the indices of numErasures symbols of the block suspected to be corrupted.
+     * It succeeds if numErasures + 2 * numErrors &lt;= numRoots.
+     * @param erasures  indices into the block, from 0 to length - 1, may be null if numErasures is 0
+     * @return number of corrected symbols, or -1 if the block is too corrupted and cannot
+     *         be recovered, in which case it is left as received
+     * @throws IllegalArgumentException  if length is larger than block length, there are
+     *                                   more erasures than numRoots or one is outside the block
+     */
+    public int decodeWithErasures(int[] encoded, int offset, int length, int[] erasures, int numErasures)
+            throws IllegalArgumentException {
+        if (length > blockLength || length < numRoots) {
+            throw new IllegalArgumentException("GenericReedSolomon.decode: block length must be between numRoots and " + blockLength);
+        }
+        if (numErasures > numRoots) {
+            throw new IllegalArgumentException("GenericReedSolomon.decodeWithErasures: more erasures than numRoots");
+        }
+        for (int k = 0; k < numErasures; k++) {
+            if (erasures[k] < 0 || erasures[k] >= length) {
+                throw new IllegalArgumentException("GenericReedSolomon.decodeWithErasures: erasure location outside of the block");
+            }
+        }
+
+        if (computeSyndromes(encoded, offset, length)) {
+            return 0;
+        }
+
+        // the erasure locator, product of (1 - X(k) x) where X(k) = alpha^(gap * degree)
+        // is the locator of the symbol at degree length - 1 - index
+        Arrays.fill(lambda, 0);
+        lambda[0] = 1;
+        for (int k = 0; k < numErasures; k++) {
+            int locator = field.exp(logOfAlphaPow((long) generatorRootGap * (length - 1 - erasures[k])));
+            for (int j = k + 1; j > 0; j--) {
+                lambda[j] ^= field.mul(locator, lambda[j - 1]);
+            }
+        }
+
+        int degree = berlekampMassey(numErasures);
+        if (degree < 0 || 2 * (degree - numErasures) + numErasures > numRoots) {
+            return -1;
+        }
+
+        if (chienSearch(degree, length) != degree) {
+            // roots missing, or in the virtual padding, too many errors
+            return -1;
+        }
+
+        // omega(x) = S(x) * lambda(x) mod x^numRoots
+        for (int i = 0; i < numRoots; i++) {
+            int sum = 0;
+            for (int j = 0; j <= Math.min(i, degree); j++) {
+                sum ^= field.mul(lambda[j], syndromes[i - j]);
+            }
+            omega[i] = sum;
+        }
+
+        // forney, e(k) = X(k)^(1 - fcr) * omega(X(k)^-1) / lambda'(X(k)^-1). the values are
+        // found before anything is written, so a failure leaves the block as received
+        for (int k = 0; k < degree; k++) {
+            int position = errorPositions[k];
+            long locatorLog = (long) generatorRootGap * position;
+            int inverse = field.exp(logOfAlphaPow(-locatorLog));
+            int numerator = 0;
+            for (int i = numRoots - 1; i >= 0; i--) {
+                numerator = field.mul(numerator, inverse) ^ omega[i];
+            }
+            // the formal derivative keeps the odd terms
+            int denominator = 0;
+            int inverseSquared = field.mul(inverse, inverse);
+            for (int j = degree - (degree % 2 == 0 ? 1 : 0); j >= 1; j -= 2) {
+                denominator = field.mul(denominator, inverseSquared) ^ lambda[j];
+            }
+            if (denominator == 0) {
+                return -1;
+            }
+            int scale = field.exp(logOfAlphaPow(locatorLog * (1 - firstConsecutiveRoot)));
+            temp[k] = field.mul(scale, field.div(numerator, denominator));
+        }
+        for (int k = 0; k < degree; k++) {
+            encoded[offset + length - 1 - errorPositions[k]] ^= temp[k];
+        }
+        return degree;
+    }
+
+    private int logOfAlphaPow(long i) {
+        int log = (int) (i % order);
+        return log < 0 ? log + order : log;
+    }
+
+    /**
+     * computeSyndromes writes S(i) = r(root(i)) for the block to syndromes
+     * @return true if all syndromes are zero
+     */
+    private boolean computeSyndromes(int[] encoded, int offset, int length) {
+        forRange(0, numRoots, Math.max(1, (int) (MIN_PARALLEL_WORK / length)), (long) length * numRoots,
+                (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        int rootLog_i = rootLog[i];
+                        int s = 0;
+                        for (int j = offset; j < offset + length; j++) {
+                            s = s == 0 ? encoded[j] : field.exp(field.log(s) + rootLog_i) ^ encoded[j];
+                        }
+                        syndromes[i] = s;
+                    }
+                });
+        int nonzero = 0;
+        for (int i = 0; i < numRoots; i++) {
+            nonzero |= syndromes[i];
+        }
+        return nonzero == 0;
+    }
+
+    /**
+     * Berlekamp-Massey with erasures, lambda holds the erasure locator on entry and the
+     * error and erasure locator on return
+     * @return degree of the locator, or -1 if it differs from the register length, then
+     *         the locator does not generate the syndromes and the block cannot be decoded
+     */
+    private int berlekampMassey(int numErasures) {
+        System.arraycopy(lambda, 0, previous, 0, numRoots + 1);
+        int length = numErasures;
+        for (int r = numErasures + 1; r <= numRoots; r++) {
+            int discrepancy = 0;
+            for (int i = 0; i < r; i++) {
+                discrepancy ^= field.mul(lambda[i], syndromes[r - i - 1]);
+            }
+            if (discrepancy == 0) {
+                // previous = x * previous
+                System.arraycopy(previous, 0, previous, 1, numRoots);
+                previous[0] = 0;
+                continue;
+            }
+            // temp = lambda - discrepancy * x * previous
+            temp[0] = lambda[0];
+            for (int i = 0; i < numRoots; i++) {
+                temp[i + 1] = lambda[i + 1] ^ field.mul(discrepancy, previous[i]);
+            }
+            if (2 * length <= r + numErasures - 1) {
+                length = r + numErasures - length;
+                for (int i = 0; i <= numRoots; i++) {
+                    previous[i] = field.div(lambda[i], discrepancy);
+                }
+            } else {
+                System.arraycopy(previous, 0, previous, 1, numRoots);
+                previous[0] = 0;
+            }
+            System.arraycopy(temp, 0, lambda, 0, numRoots + 1);
+        }
+
+        int degree = 0;
+        for (int i = 0; i <= numRoots; i++) {
+            if (lambda[i] != 0) {
+                degree = i;
+            }
+        }
+        return degree == length ? degree : -1;
+    }
+
+    /**
+     * chienSearch evaluates lambda at X^-1 for the locator X of every degree of the block,
+     * writing the degrees of the roots to errorPositions
+     * @return number of roots found, at most degree + 1
+     */
+    private int chienSearch(int degree, int length) {
+        numFound.set(0);
+        int[] lambdaLog = new int[degree + 1];
+        for (int j = 0; j <= degree; j++) {
+            lambdaLog[j] = field.log(lambda[j]);
+        }
+        forRange(0, length, MIN_POSITIONS_PER_TASK, (long) length * degree, (from, to) -> {
+            // term j is lambda(j) * X^-j, stepping X to the next degree multiplies it by
+            // alpha^(-gap * j)
+            int[] termLog = new int[degree + 1];
+            int[] stepLog = new int[degree + 1];
+            for (int j = 0; j <= degree; j++) {
+                stepLog[j] = logOfAlphaPow(-(long) generatorRootGap * j);
+                termLog[j] = lambdaLog[j] == order ? order : logOfAlphaPow(lambdaLog[j] + (long) stepLog[j] * from);
+            }
+            for (int position = from; position < to; position++) {
+                int sum = 0;
+                for (int j = 0; j <= degree; j++) {
+                    int log = termLog[j];
+                    if (log != order) {
+                        sum ^= field.exp(log);
+                        log += stepLog[j];
+                        termLog[j] = log >= order ? log - order : log;
+                    }
+                }
+                if (sum == 0) {
+                    int found = numFound.getAndIncrement();
+                    if (found < degree) {
+                        errorPositions[found] = position;
+                    }
+                }
+            }
+        });
+        return Math.min(numFound.get(), degree + 1);
+    }
+
+    private interface RangeWork {
+        void run(int from, int to);
+    }
+
+    // runs work over [from, to), split into ranges of about grain on the pool if there is
+    // enough of it to be worth the tasks
+    private void forRange(int from, int to, int grain, long work, RangeWork rangeWork) {
+        if (work < MIN_PARALLEL_WORK || to - from <= grain || pool.getParallelism() < 2) {
+            rangeWork.run(from, to);
+            return;
+        }
+        pool.invoke(new SplitRange(rangeWork, from, to, grain));
+    }
+
+    private static class SplitRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeWork rangeWork;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        SplitRange(RangeWork rangeWork, int from, int to, int grain) {
+            this.rangeWork = rangeWork;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SplitRange(rangeWork, from, middle, grain), new SplitRange(rangeWork, middle, to, grain));
+                return;
+            }
+            rangeWork.run(from, to);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * libcorrect4j
+ * InterleavedReedSolomon.java
+ */
+
+package libcorrect.reed_solomon;
+
+/**
+ * Encodes and decodes frames of depth Reed-Solomon codewords interleaved byte by byte, as
+ * CCSDS does with depths 1 to 8: byte j of codeword i is byte j * depth + i of the frame.
+ * A frame of depth codewords with msgLength payload bytes each holds all the payload
+ * first, depth * msgLength bytes, then all the parity, interleaved the same way.
+ *
+ * Frames are worked on in place, without deinterleaving. All lanes go through their parity
+ * registers in one sequential pass over the frame; only lanes that are not codewords are
+ * decoded further, and only their bytes in error are written back.
+ *
+ * The tables belong to the shared ReedSolomonCode. An instance holds decoding scratch
+ * space and must not be used by two threads at the same time.
+ */
+public class InterleavedReedSolomon {
+    public static final int MAX_DEPTH = 8;
+
+    private final ReedSolomonCode code;
+    private final int depth;
+    private final RsWorkspace ws;
+    private final byte[] remainder;
+
+    /**
+     * @param code   the code of every lane
+     * @param depth  number of interleaved codewords, 1 to MAX_DEPTH
+     * @throws IllegalArgumentException if depth is out of range
+     */
+    public InterleavedReedSolomon(ReedSolomonCode code, int depth) throws IllegalArgumentException {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("InterleavedReedSolomon: depth must be between 1 and " + MAX_DEPTH);
+        }
+        this.code = code;
+        this.depth = depth;
+        ws = new RsWorkspace(code);
+        remainder = new byte[depth * code.getNumRoots()];
+    }
+
+    public ReedSolomonCode getCode() {
+        return code;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * encode computes the parity of the depth * msgLength payload bytes at frame[offset..]
+     * and writes it right after them
+     * @param msgLength  payload bytes of each codeword
+     * @throws IllegalArgumentException  if msgLength is negative or larger than (255 - min. distance),
+     *                                   or the frame cannot hold the payload and parity
+     */
+    public void encode(byte[] frame, int offset, int msgLength) throws IllegalArgumentException {
+        if (msgLength < 0 || msgLength > code.getBlockLength() - code.getNumRoots()) {
+            throw new IllegalArgumentException("InterleavedReedSolomon.encode: message length must be between 0 and block length - min. distance");
+        }
+        if (offset < 0 || frame.length < offset + (long) depth * (msgLength + code.getNumRoots())) {
+            throw new IllegalArgumentException("InterleavedReedSolomon.encode: frame too small for the payload and parity");
+        }
+        code.getEncoder().encodeInterleaved(frame, offset, msgLength, depth, frame, offset + depth * msgLength);
+    }
+
+    /**
+     * decode corrects the frame of depth * encodedLength bytes at frame[offset..] in place.
+     * Codewords that cannot be recovered are left as received.
+     * @param encodedLength  payload and parity bytes of each codeword
+     * @param corrected      receives the number of corrected bytes of each codeword, or -1
+     *                       if it cannot be recovered, may be null
+     * @return number of codewords that could not be recovered
+     * @throws IllegalArgumentException  if encodedLength is not between min. distance and block
+     *                                   length, the frame is too small or corrected has fewer
+     *                                   than depth entries
+     */
+    public int decode(byte[] frame, int offset, int encodedLength, int[] corrected) throws IllegalArgumentException {
+        if (encodedLength < code.getNumRoots() || encodedLength > code.getBlockLength()) {
+            throw new IllegalArgumentException("InterleavedReedSolomon.decode: encoded message length must be between min. distance and block length");
+        }
+        if (offset < 0 || frame.length < offset + (long) depth * encodedLength) {
+            throw new IllegalArgumentException("InterleavedReedSolomon.decode: frame too small for depth codewords");
+        }
+        if (corrected != null && corrected.length < depth) {
+            throw new IllegalArgumentException("InterleavedReedSolomon.decode: corrected must hold depth entries");
+        }
+        SyndromeEngine syndromeEngine = code.getSyndromeEngine();
+        int dirty = syndromeEngine.computeInterleaved(frame, offset, encodedLength, depth, remainder);
+        int failed = 0;
+        for (int lane = 0; lane < depth; lane++) {
+            int result = 0;
+            if ((dirty & 1 << lane) != 0) {
+                syndromeEngine.laneSyndromes(remainder, depth, lane, ws.syndromes);
+                result = code.decodeInterleavedLane(ws, frame, offset, encodedLength, depth, lane);
+            }
+            if (result < 0) {
+                failed++;
+            }
+            if (corrected != null) {
+                corrected[lane] = result;
+            }
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * libcorrect4j
+ * LfsrEncoder.java
+ */
+
+package libcorrect.reed_solomon;
+
+/**
+ * Computes Reed-Solomon parity with a shift register instead of polynomial division.
+ * For every message byte the feedback (the byte plus the leading parity byte) is
+ * multiplied by all generator coefficients at once, by looking up the precomputed
+ * product row for that feedback value, and added to the register shifted by one byte.
+ *
+ * The register is kept as big-endian packed longs, the leading parity byte first, so the
+ * shift is a shift of the longs and the add is one xor per long. Up to 32 roots the
+ * register lives in 4 locals. The tables are read-only after construction, so one
+ * encoder can be shared between threads.
+ */
+public class LfsrEncoder {
+    private final int numRoots;
+    private final int words;
+    // row f holds f * g(x), highest order coefficient below the leading one first,
+    //  packed 8 per long like the register
+    private final long[] feedbackTable_U;
+
+    /**
+     * @param field      field of the code
+     * @param generator  monic generator polynomial of order numRoots
+     */
+    public LfsrEncoder(Field field, Polynomial generator) {
+        numRoots = generator.getOrder();
+        words = numRoots <= 32 ? 4 : (numRoots + 7) / 8;
+        feedbackTable_U = new long[256 * words];
+        for (int f = 1; f < 256; f++) {
+            for (int k = 0; k < numRoots; k++) {
+                byte product_U = field.fieldMul((byte) f, generator.getCoeff(numRoots - 1 - k));
+                feedbackTable_U[f * words + k / 8] |= Byte.toUnsignedLong(product_U) << 8 * (7 - k % 8);
+            }
+        }
+    }
+
+    /**
+     * @return number of parity bytes written by encode
+     */
+    public int getNumRoots() {
+        return numRoots;
+    }
+
+    /**
+     * encode writes the parity of msg[msgOffset..msgOffset+msgLength) to
+     * parity[parityOffset..parityOffset+numRoots). Shortened messages need no padding,
+     * leading zeros leave the register unchanged.
+     */
+    public void encode(byte[] msg, int msgOffset, int msgLength, byte[] parity, int parityOffset) {
+        if (words == 4) {
+            encode4(msg, msgOffset, msgLength, parity, parityOffset);
+            return;
+        }
+        long[] register_U = new long[words];
+        for (int i = msgOffset; i < msgOffset + msgLength; i++) {
+            int feedback_U = (msg[i] ^ (int) (register_U[0] >>> 56)) & 0xff;
+            int row = feedback_U * words;
+            for (int w = 0; w < words - 1; w++) {
+                register_U[w] = (register_U[w] << 8 | register_U[w + 1] >>> 56) ^ feedbackTable_U[row + w];
+            }
+            register_U[words - 1] = register_U[words - 1] << 8 ^ feedbackTable_U[row + words - 1];
+        }
+        for (int k = 0; k < numRoots; k++) {
+            parity[parityOffset + k] = (byte) (register_U[k / 8] >>> 8 * (7 - k % 8));
+        }
+    }
+
+    // the register as 4 locals, for up to 32 roots
+    private void encode4(byte[] msg, int msgOffset, int msgLength, byte[] parity, int parityOffset) {
+        long[] table_U = feedbackTable_U;
+        long r0_U = 0;
+        long r1_U = 0;
+        long r2_U = 0;
+        long r3_U = 0;
+        for (int i = msgOffset; i < msgOffset + msgLength; i++) {
+            int row = ((msg[i] ^ (int) (r0_U >>> 56)) & 0xff) << 2;
+            r0_U = (r0_U << 8 | r1_U >>> 56) ^ table_U[row];
+            r1_U = (r1_U << 8 | r2_U >>> 56) ^ table_U[row + 1];
+            r2_U = (r2_U << 8 | r3_U >>> 56) ^ table_U[row + 2];
+            r3_U = r3_U << 8 ^ table_U[row + 3];
+        }
+        for (int k = 0; k < numRoots; k++) {
+            long word_U = k < 8 ? r0_U : k < 16 ? r1_U : k < 24 ? r2_U : r3_U;
+            parity[parityOffset + k] = (byte) (word_U >>> 8 * (7 - k % 8));
+        }
+    }
+
+    /**
+     * encodeInterleaved computes the parity of depth messages that are interleaved byte by
+     * byte, byte j of message lane at data[offset + j * depth + lane], with one register
+     * per lane. The bytes are read once, in order. Parity byte k of lane goes to
+     * parity[parityOffset + k * depth + lane], so a frame can be encoded in place.
+     * @param length  message length of each lane
+     */
+    public void encodeInterleaved(byte[] data, int offset, int length, int depth, byte[] parity, int parityOffset) {
+        long[] table_U = feedbackTable_U;
+        long[] register_U = new long[depth * words];
+        int end = offset + length * depth;
+        if (words == 4) {
+            for (int i = offset; i < end; i += depth) {
+                for (int lane = 0, r = 0; lane < depth; lane++, r += 4) {
+                    long r0_U = register_U[r];
+                    int row = ((data[i + lane] ^ (int) (r0_U >>> 56)) & 0xff) << 2;
+                    register_U[r] = (r0_U << 8 | register_U[r + 1] >>> 56) ^ table_U[row];
+                    register_U[r + 1] = (register_U[r + 1] << 8 | register_U[r + 2] >>> 56) ^ table_U[row + 1];
+                    register_U[r + 2] = (register_U[r + 2] << 8 | register_U[r + 3] >>> 56) ^ table_U[row + 2];
+                    register_U[r + 3] = register_U[r + 3] << 8 ^ table_U[row + 3];
+                }
+            }
+        } else {
+            for (int i = offset; i < end; i += depth) {
+                for (int lane = 0, r = 0; lane < depth; lane++, r += words) {
+                    int row = ((data[i + lane] ^ (int) (register_U[r] >>> 56)) & 0xff) * words;
+                    for (int w = 0; w < words - 1; w++) {
+                        register_U[r + w] = (register_U[r + w] << 8 | register_U[r + w + 1] >>> 56) ^ table_U[row + w];
+                    }
+                    register_U[r + words - 1] = register_U[r + words - 1] << 8 ^ table_U[row + words - 1];
+                }
+            }
+        }
+        for (int k = 0; k < numRoots; k++) {
+            for (int lane = 0; lane < depth; lane++) {
+                parity[parityOffset + k * depth + lane] = (byte) (register_U[lane * words + k / 8] >>> 8 * (7 - k % 8));
+            }
+        }
+    }
+}
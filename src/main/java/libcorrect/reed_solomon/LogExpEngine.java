@@ -0,0 +1,73 @@
+/*
+ * libcorrect4j
+ * LogExpEngine.java
+ */
+
+package libcorrect.reed_solomon;
+
+// multiplies by adding logarithms, branching on zero operands. smallest tables: 768 bytes
+public class LogExpEngine extends FieldEngine {
+    public LogExpEngine(byte[] expTable, byte[] logTable) {
+        super(expTable, logTable);
+    }
+
+    @Override
+    public byte mul(byte l, byte r) {
+        if (l == 0 || r == 0) {
+            return 0;
+        }
+        // multiply two field elements by adding their logarithms.
+        // yep, get your slide rules out
+        // if the sum exceeds 255, we would normally have to wrap it back around
+        // alpha^255 = 1; alpha^256 = alpha^255 * alpha^1 = alpha^1
+        // however, the exponentiation table runs up to 511 so that
+        //   we can just directly lookup this result
+        // the greatest we can see at this step is alpha^255 * alpha^255
+        //   = alpha^510
+        return expTable[Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(l)]) + Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(r)])];
+    }
+
+    @Override
+    public byte div(byte l, byte r) throws IllegalArgumentException {
+        if (l == 0) {
+            return 0;
+        }
+        if (r == 0) {
+            throw new IllegalArgumentException("fieldDiv: illegal dividor r==0");
+        }
+        // division as subtraction of logarithms
+        // if log[r] is larger, then log[l] - log[r] wraps under
+        // so, instead, always add 255. in some cases, we'll wrap over, but
+        // that's ok because the exp table runs up to 511.
+        return expTable[255 + Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(l)]) - Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(r)])];
+    }
+
+    @Override
+    public void mulConst(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        if (c == 0) {
+            for (int i = 0; i < len; i++) {
+                dst[dstOffset + i] = 0;
+            }
+            return;
+        }
+        int cLog = Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(c)]);
+        for (int i = 0; i < len; i++) {
+            byte s = src[srcOffset + i];
+            dst[dstOffset + i] = s == 0 ? 0 : expTable[Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(s)]) + cLog];
+        }
+    }
+
+    @Override
+    public void mulConstAdd(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        if (c == 0) {
+            return;
+        }
+        int cLog = Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(c)]);
+        for (int i = 0; i < len; i++) {
+            byte s = src[srcOffset + i];
+            if (s != 0) {
+                dst[dstOffset + i] ^= expTable[Byte.toUnsignedInt(logTable[Byte.toUnsignedInt(s)]) + cLog];
+            }
+        }
+    }
+}
@@ -123,11 +123,8 @@ public class Polynomial implements Cloneable {
                 continue;
             }
             int jLimit_U = r.order > res.order - i ? res.order - i : r.order;
-            for (int j = 0; j <= jLimit_U; j++) {
-                // e.g. alpha^5*x * alpha^37*x^2 --> alpha^42*x^3
-                res.coeff[i + j] = field.fieldAdd(res.coeff[i + j],
-                        field.fieldMul(l.coeff[i], r.coeff[j]));
-            }
+            // e.g. alpha^5*x * alpha^37*x^2 --> alpha^42*x^3
+            field.fieldMulConstAdd(r.coeff, 0, l.coeff[i], res.coeff, i, jLimit_U + 1);
         }
     }
 
@@ -147,7 +144,8 @@ public class Polynomial implements Cloneable {
             return;
         }
         // initialize remainder as dividend
-        mod.coeff = Arrays.copyOf(dividend.coeff, dividend.order + 1);
+        System.arraycopy(dividend.coeff, 0, mod.coeff, 0, dividend.order + 1);
+        Arrays.fill(mod.coeff, dividend.order + 1, mod.coeff.length, (byte) 0);
 
 
         // XXX make sure divisor[divisor_order] is nonzero
@@ -170,15 +168,8 @@ public class Polynomial implements Cloneable {
 
             // now that we've chosen q, multiply the divisor by q and subtract from
             //   our remainder. subtracting in GF(2^8) is XOR, just like addition
-            for (int j = 0; j <= divisor.order; j++) {
-                if (Byte.toUnsignedInt(divisor.coeff[j]) == 0) {
-                    continue;
-                }
-                // all of the multiplication is shifted up by q_order places
-                mod.coeff[j + qOrder] = field.fieldAdd(mod.coeff[j + qOrder],
-                        field.fieldMulLogElement(field.log(Byte.toUnsignedInt(divisor.coeff[j])), qCoeff));
-
-            }
+            // all of the multiplication is shifted up by q_order places
+            field.fieldMulConstAdd(divisor.coeff, 0, field.exp(Byte.toUnsignedInt(qCoeff)), mod.coeff, qOrder, divisor.order + 1);
         }
     }
 
@@ -0,0 +1,59 @@
+/*
+ * libcorrect4j
+ * ProductTableEngine.java
+ */
+
+package libcorrect.reed_solomon;
+
+// looks every product up in a precomputed 256 x 256 table (64K), no branches at all.
+// multiplying by a constant walks a single 256 byte row
+public class ProductTableEngine extends FieldEngine {
+    // product of l and r at l << 8 | r
+    private final byte[] productTable;
+    private final byte[] inverseTable;
+
+    public ProductTableEngine(byte[] expTable, byte[] logTable) {
+        super(expTable, logTable);
+        productTable = new byte[256 * 256];
+        inverseTable = new byte[256];
+        for (int l = 1; l < 256; l++) {
+            int lLog = Byte.toUnsignedInt(logTable[l]);
+            for (int r = 1; r < 256; r++) {
+                productTable[l << 8 | r] = expTable[lLog + Byte.toUnsignedInt(logTable[r])];
+            }
+            inverseTable[l] = inverse((byte) l);
+        }
+    }
+
+    @Override
+    public byte mul(byte l, byte r) {
+        return productTable[Byte.toUnsignedInt(l) << 8 | Byte.toUnsignedInt(r)];
+    }
+
+    @Override
+    public byte div(byte l, byte r) throws IllegalArgumentException {
+        if (r == 0) {
+            if (l == 0) {
+                return 0;
+            }
+            throw new IllegalArgumentException("fieldDiv: illegal dividor r==0");
+        }
+        return productTable[Byte.toUnsignedInt(l) << 8 | Byte.toUnsignedInt(inverseTable[Byte.toUnsignedInt(r)])];
+    }
+
+    @Override
+    public void mulConst(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        int row = Byte.toUnsignedInt(c) << 8;
+        for (int i = 0; i < len; i++) {
+            dst[dstOffset + i] = productTable[row | Byte.toUnsignedInt(src[srcOffset + i])];
+        }
+    }
+
+    @Override
+    public void mulConstAdd(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        int row = Byte.toUnsignedInt(c) << 8;
+        for (int i = 0; i < len; i++) {
+            dst[dstOffset + i] ^= productTable[row | Byte.toUnsignedInt(src[srcOffset + i])];
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * libcorrect4j
+ * ReedSolomonCache.java
+ */
+
+package libcorrect.reed_solomon;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Process-wide cache of fields and codes, so that every ReedSolomon created for the same
+ * parameters shares one set of tables instead of building its own. Fields and codes are
+ * immutable, sharing them between threads needs no locking. Each cache holds a bounded
+ * number of entries and evicts the least recently used one when it is full; an evicted
+ * entry stays valid for whoever still holds it.
+ */
+public final class ReedSolomonCache {
+    private final static int DEFAULT_MAX_FIELDS = 16;
+    private final static int DEFAULT_MAX_CODES = 64;
+
+    private final static Bounded<Integer, Field> fields = new Bounded<>(DEFAULT_MAX_FIELDS);
+    private final static Bounded<CodeKey, ReedSolomonCode> codes = new Bounded<>(DEFAULT_MAX_CODES);
+
+    private ReedSolomonCache() {
+    }
+
+    /**
+     * @return the shared field for the primitive polynomial and engine
+     * @throws IllegalArgumentException if the engine is unknown
+     */
+    public static Field field(short primitivePolynomial, int engine) throws IllegalArgumentException {
+        return fields.get(Short.toUnsignedInt(primitivePolynomial) << 8 | engine,
+                key -> new Field(primitivePolynomial, engine));
+    }
+
+    /**
+     * @return the shared code for the parameters, see ReedSolomonCode
+     * @throws IllegalArgumentException if the engine is unknown
+     */
+    public static ReedSolomonCode code(short primitivePolynomial, byte firstConsecutiveRoot, byte generatorRootGap,
+                                       int numRoots, int fieldEngine) throws IllegalArgumentException {
+        return codes.get(new CodeKey(primitivePolynomial, firstConsecutiveRoot, generatorRootGap, numRoots, fieldEngine),
+                key -> new ReedSolomonCode(primitivePolynomial, firstConsecutiveRoot, generatorRootGap, numRoots, fieldEngine));
+    }
+
+    /**
+     * warmUp builds the tables of a code ahead of time, and the decoding workspace of the
+     * calling thread, so that the first decode does not have to
+     * @return the shared code
+     */
+    public static ReedSolomonCode warmUp(short primitivePolynomial, byte firstConsecutiveRoot, byte generatorRootGap,
+                                         int numRoots, int fieldEngine) throws IllegalArgumentException {
+        ReedSolomonCode code = code(primitivePolynomial, firstConsecutiveRoot, generatorRootGap, numRoots, fieldEngine);
+        code.warmUp();
+        return code;
+    }
+
+    /**
+     * setMaxCodes sets how many codes are kept, evicting the least recently used ones if
+     * there are more
+     */
+    public static void setMaxCodes(int maxCodes) {
+        codes.setMax(maxCodes);
+    }
+
+    /**
+     * @return number of codes currently cached
+     */
+    public static int codeCount() {
+        return codes.size();
+    }
+
+    /**
+     * clear drops all cached fields and codes
+     */
+    public static void clear() {
+        fields.clear();
+        codes.clear();
+    }
+
+    private static final class CodeKey {
+        private final short primitivePolynomial;
+        private final byte firstConsecutiveRoot;
+        private final byte generatorRootGap;
+        private final int numRoots;
+        private final int fieldEngine;
+
+        CodeKey(short primitivePolynomial, byte firstConsecutiveRoot, byte generatorRootGap, int numRoots, int fieldEngine) {
+            this.primitivePolynomial = primitivePolynomial;
+            this.firstConsecutiveRoot = firstConsecutiveRoot;
+            this.generatorRootGap = generatorRootGap;
+            this.numRoots = numRoots;
+            this.fieldEngine = fieldEngine;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CodeKey)) {
+                return false;
+            }
+            CodeKey k = (CodeKey) o;
+            return primitivePolynomial == k.primitivePolynomial && firstConsecutiveRoot == k.firstConsecutiveRoot &&
+                    generatorRootGap == k.generatorRootGap && numRoots == k.numRoots && fieldEngine == k.fieldEngine;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(primitivePolynomial, firstConsecutiveRoot, generatorRootGap, numRoots, fieldEngine);
+        }
+    }
+
+    // a concurrent map with at most max entries. lookups only touch the map and a
+    // timestamp, eviction scans the entries, which is fine for a few dozen of them
+    private static final class Bounded<K, V> {
+        private final Map<K, Entry<V>> map = new ConcurrentHashMap<>();
+        private volatile int max;
+        private long clock;
+
+        Bounded(int max) {
+            this.max = max;
+        }
+
+        V get(K key, Function<K, V> create) {
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                // the new entry is stamped before it goes in, so that it is not the one evicted
+                entry = map.computeIfAbsent(key, k -> new Entry<>(create.apply(k), tick()));
+                evict(key);
+            } else {
+                entry.lastUse = tick();
+            }
+            return entry.value;
+        }
+
+        private synchronized long tick() {
+            return ++clock;
+        }
+
+        synchronized void setMax(int max) {
+            this.max = max;
+            evict(null);
+        }
+
+        int size() {
+            return map.size();
+        }
+
+        void clear() {
+            map.clear();
+        }
+
+        // evict drops the least recently used entries until there are at most max. keep,
+        // the entry that was just added, is never dropped
+        private synchronized void evict(K keep) {
+            while (map.size() > max) {
+                K oldest = null;
+                long oldestUse = Long.MAX_VALUE;
+                for (Map.Entry<K, Entry<V>> e : map.entrySet()) {
+                    if (e.getValue().lastUse < oldestUse && !e.getKey().equals(keep)) {
+                        oldestUse = e.getValue().lastUse;
+                        oldest = e.getKey();
+                    }
+                }
+                if (oldest == null) {
+                    return;
+                }
+                map.remove(oldest);
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastUse;
+
+        Entry(V value, long lastUse) {
+            this.value = value;
+            this.lastUse = lastUse;
+        }
+    }
+}
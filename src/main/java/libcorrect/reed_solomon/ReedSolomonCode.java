@@ -0,0 +1,1201 @@
+/*
+ * libcorrect4j
+ * ReedSolomonCode.java
+ * Created from src/correct/reed-solomon/encode.c
+ *              src/correct/reed-solomon/decode.c @ https://github.com/quiet/libcorrect
+ */
+
+package libcorrect.reed_solomon;
+
+import java.util.Arrays;
+
+import static libcorrect.reed_solomon.Polynomial.*;
+
+/**
+ * A Reed-Solomon code with all of its precomputed tables. It is immutable once constructed
+ * and can be shared by any number of threads: encoding needs no scratch space at all, and
+ * every decode is given an RsWorkspace holding the scratch space, one per thread.
+ * The decode methods without a workspace use one kept per calling thread.
+ */
+public class ReedSolomonCode {
+    // how the key equation is solved for the error locator
+    // berlekamp-massey with a division per update
+    public static final int CORRECT_RS_BERLEKAMP_MASSEY = 0;
+    // berlekamp-massey without divisions, every step does the same bulk multiplies
+    public static final int CORRECT_RS_INVERSIONLESS_BM = CORRECT_RS_BERLEKAMP_MASSEY + 1;
+    // euclid's algorithm, which yields the error evaluator along with the locator
+    public static final int CORRECT_RS_EUCLID = CORRECT_RS_INVERSIONLESS_BM + 1;
+
+    private final int blockLength;
+    private final int maxMessageLength;
+    private final int minDistance;
+    private final byte fConsecutiveRoot;
+    private final byte gRootGap;
+    private final Field field;
+    private final Polynomial generator;
+    private final byte[] generatorRoots;
+    private final LfsrEncoder encoder;
+    private final SyndromeEngine syndromeEngine;
+    // the first min_distance powers of every element in the field
+    private final byte[][] elementExp;
+    // log of alpha^(-gap * j) for every term j of the error locator
+    private final int[] chienStepLog;
+    // gap^-1 mod 255, or 0 if there is none
+    private final int gapInverse;
+    // a solution y of y^2 + y = c at c, or -1 if there is none
+    private final int[] quadraticRoot;
+    private final int keySolver;
+    private final ThreadLocal<RsWorkspace> threadWorkspace = ThreadLocal.withInitial(() -> new RsWorkspace(this));
+
+    /**
+     * Allocates and initializes a reed solomon code. The block size must be 255 bytes with
+     * 8-bit symbols.
+     * @param primitivePolynomial           Should be one of the values in ReedSolomon
+     * @param firstConsecutiveRoot
+     * @param generatorRootGap              Sane values for firstConsecutiveRoot and generatorRootGap
+     *                                      are 1 and 1. Not all combinations of values produce valid codes.
+     * @param numRoots                      Handle as many as numRoots/2 bytes having corruption
+     *                                      and still recover the encoded payload.
+     * @param fieldEngine                   one of the Field.CORRECT_FIELD_ constants
+     * @throws IllegalArgumentException     if the field engine is unknown
+     */
+    public ReedSolomonCode(short primitivePolynomial, byte firstConsecutiveRoot, byte generatorRootGap, int numRoots,
+                           int fieldEngine) throws IllegalArgumentException {
+        field = ReedSolomonCache.field(primitivePolynomial, fieldEngine);
+        blockLength = 255;
+        minDistance = numRoots;
+
+        maxMessageLength = blockLength - minDistance;
+        fConsecutiveRoot = firstConsecutiveRoot;
+        gRootGap = generatorRootGap;
+        generatorRoots = new byte[minDistance];
+        keySolver = CORRECT_RS_BERLEKAMP_MASSEY;
+
+        generator = reedSolomonBuildGenerator(minDistance, generatorRoots);
+
+        encoder = new LfsrEncoder(field, generator);
+        syndromeEngine = new SyndromeEngine(field, encoder, generatorRoots);
+
+        // locations are recovered from locators by multiplying their logs with the inverse
+        // of the gap, 0 if the gap has none mod 255
+        int inverse = 0;
+        for (int g = 1; g < 255; g++) {
+            if (Byte.toUnsignedInt(generatorRootGap) * g % 255 == 1) {
+                inverse = g;
+                break;
+            }
+        }
+        gapInverse = inverse;
+
+        // y^2 + y = c has two solutions y and y + 1 for half of the c, and none for the rest
+        quadraticRoot = new int[256];
+        Arrays.fill(quadraticRoot, -1);
+        for (int y = 0; y < 256; y++) {
+            int c = Byte.toUnsignedInt(field.fieldMul((byte) y, (byte) y)) ^ y;
+            if (quadraticRoot[c] < 0) {
+                quadraticRoot[c] = y;
+            }
+        }
+
+        // the chien search steps term j from one position to the next by alpha^(-gap * j)
+        chienStepLog = new int[minDistance + 1];
+        for (int j = 0; j <= minDistance; j++) {
+            chienStepLog[j] = (255 - Byte.toUnsignedInt(generatorRootGap) * j % 255) % 255;
+        }
+
+        // calculate and store the first min_distance powers of every element in the field
+        // we would have to do this for chien search anyway, and its size is only 256 * min_distance bytes
+        // for min_distance = 32 this is 8k of memory, a pittance for the speedup we receive in exchange
+        // we also get to reuse this work during error value calculation
+        elementExp = new byte[256][];
+        for (int i = 0; i < 256; i++) {
+            elementExp[i] = new byte[minDistance];
+            buildExpLut(field, (byte) i, minDistance - 1, elementExp[i]);
+        }
+    }
+
+    public ReedSolomonCode(short primitivePolynomial, byte firstConsecutiveRoot, byte generatorRootGap, int numRoots) {
+        this(primitivePolynomial, firstConsecutiveRoot, generatorRootGap, numRoots, Field.CORRECT_FIELD_LOG_EXP);
+    }
+
+    // the same code with another key equation solver, sharing all tables
+    private ReedSolomonCode(ReedSolomonCode code, int keySolver) {
+        blockLength = code.blockLength;
+        maxMessageLength = code.maxMessageLength;
+        minDistance = code.minDistance;
+        fConsecutiveRoot = code.fConsecutiveRoot;
+        gRootGap = code.gRootGap;
+        field = code.field;
+        generator = code.generator;
+        generatorRoots = code.generatorRoots;
+        encoder = code.encoder;
+        syndromeEngine = code.syndromeEngine;
+        elementExp = code.elementExp;
+        chienStepLog = code.chienStepLog;
+        gapInverse = code.gapInverse;
+        quadraticRoot = code.quadraticRoot;
+        this.keySolver = keySolver;
+    }
+
+    /**
+     * @param keySolver  one of the CORRECT_RS_ solver constants
+     * @return this code decoding with the given key equation solver. It shares all tables
+     *         with this one and decodes to the same results.
+     * @throws IllegalArgumentException if the solver is unknown
+     */
+    public ReedSolomonCode withKeyEquationSolver(int keySolver) throws IllegalArgumentException {
+        switch (keySolver) {
+            case CORRECT_RS_BERLEKAMP_MASSEY:
+            case CORRECT_RS_INVERSIONLESS_BM:
+            case CORRECT_RS_EUCLID:
+                return keySolver == this.keySolver ? this : new ReedSolomonCode(this, keySolver);
+            default:
+                throw new IllegalArgumentException("ReedSolomonCode: unknown key equation solver " + keySolver);
+        }
+    }
+
+    public int getKeyEquationSolver() {
+        return keySolver;
+    }
+
+    /**
+     * warmUp allocates the decoding scratch space of the calling thread now instead of on
+     * its first decode. All tables are already built by the constructor.
+     */
+    public void warmUp() {
+        threadWorkspace.get();
+    }
+
+    /**
+     * @return number of parity bytes per block
+     */
+    public int getNumRoots() {
+        return minDistance;
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Polynomial getGenerator() {
+        return generator;
+    }
+
+    byte[] getGeneratorRoots() {
+        return generatorRoots;
+    }
+
+    LfsrEncoder getEncoder() {
+        return encoder;
+    }
+
+    SyndromeEngine getSyndromeEngine() {
+        return syndromeEngine;
+    }
+
+    /**
+     * encode writes msg[msgOffset..msgOffset+msgLength) followed by its parity to encoded at
+     * encodedOffset. Shorter blocks are encoded with virtual padding where the padding is
+     * not emitted.
+     * @throws IllegalArgumentException  if message length is larger then (255 - min. distance)
+     */
+    public void encode(byte[] msg, int msgOffset, int msgLength, byte[] encoded, int encodedOffset)
+            throws IllegalArgumentException {
+        if (msgLength > maxMessageLength) {
+            throw new IllegalArgumentException("ReedSolomon.encode: message length must be smaller than block length - min. distance");
+        }
+
+        // the message goes out as is, the parity register takes it byte by byte from the
+        // highest order coefficient down. shorter messages are padded with leading zeros,
+        // which would not change the register, so they are not fed at all
+        System.arraycopy(msg, msgOffset, encoded, encodedOffset, msgLength);
+        encoder.encode(msg, msgOffset, msgLength, encoded, encodedOffset + msgLength);
+    }
+
+    /**
+     * @return msg followed by its parity
+     * @throws IllegalArgumentException  if message length is larger then (255 - min. distance)
+     */
+    public byte[] encode(byte[] msg) throws IllegalArgumentException {
+        if (msg.length > maxMessageLength) {
+            throw new IllegalArgumentException("ReedSolomon.encode: message length must be smaller than block length - min. distance");
+        }
+        byte[] encoded = new byte[msg.length + minDistance];
+        encode(msg, 0, msg.length, encoded, 0);
+        return encoded;
+    }
+
+    /**
+     * decode uses the workspace of the calling thread, see decode with a workspace
+     * @return decoded message or null if the block is too corrupted and cannot be recovered
+     * @throws IllegalArgumentException  if encoded message length is larger than block length
+     */
+    public byte[] decode(byte[] encoded) throws IllegalArgumentException {
+        if (encoded.length > blockLength) {
+            throw new IllegalArgumentException("ReedSolomon.decode: encoded message length must be smaller than block length");
+        }
+        byte[] msg = new byte[encoded.length - minDistance];
+        if (decode(threadWorkspace.get(), encoded, 0, encoded.length, msg, 0) < 0) {
+            return null;
+        }
+        return msg;
+    }
+
+    /**
+     * decodeWithErasures uses the workspace of the calling thread, see decodeWithErasures
+     * with a workspace
+     * @return decoded message or null if the block is too corrupted and cannot be recovered
+     */
+    public byte[] decodeWithErasures(byte[] encoded, byte[] erasureLocations) throws IllegalArgumentException {
+        if (erasureLocations.length == 0) {
+            return decode(encoded);
+        }
+        return decodeWithErasures(threadWorkspace.get(), encoded, erasureLocations);
+    }
+
+    /**
+     * decode decodes a payload from the block in encoded[offset..offset+encodedLength),
+     * containing payload and parity bytes, and writes it to msg at msgOffset. This
+     * function can recover in spite of some bytes being corrupted. In most cases, if the
+     * block is too corrupted, this function will return -1 and not perform decoding. It is
+     * possible but unlikely that the payload written to msg will contain errors when this
+     * function returns a positive value.
+     * @param ws            scratch space, not to be used by another thread meanwhile
+     * @param encoded       holds the encoded message
+     * @param offset        where the encoded message starts
+     * @param encodedLength length of the encoded message
+     * @param msg           receives encodedLength - min. distance bytes of payload
+     * @param msgOffset     where the payload goes
+     * @return              number of corrected bytes, or -1 if the block is too corrupted and cannot be recovered
+     * @throws IllegalArgumentException  if encoded message length is larger than block length
+     */
+    public int decode(RsWorkspace ws, byte[] encoded, int offset, int encodedLength, byte[] msg, int msgOffset)
+            throws IllegalArgumentException {
+        if (encodedLength > blockLength) {
+            throw new IllegalArgumentException("ReedSolomon.decode: encoded message length must be smaller than block length");
+        }
+
+        // the message is the non-remainder part
+        int msgLength = encodedLength - minDistance;
+
+        boolean allZero = findSyndromes(ws, encoded, offset, encodedLength);
+
+        if (allZero) {
+            // syndromes were all zero, so there was no error in the message
+            // copy to msg and we are done
+            System.arraycopy(encoded, offset, msg, msgOffset, msgLength);
+            return 0;
+        }
+
+        // a shortened block is never padded out to the block length. the syndromes and the
+        // root search only visit the encodedLength transmitted positions, and the
+        // corrections go straight into the copied payload
+        int numErrors = locateErrors(ws, encodedLength);
+        if (numErrors < 0) {
+            return -1;
+        }
+
+        System.arraycopy(encoded, offset, msg, msgOffset, msgLength);
+        correctPayload(ws, numErrors, encodedLength, msg, msgOffset);
+        return numErrors;
+    }
+
+    /**
+     * correctPayload applies the first numErrors values in ws.errorVals at ws.errorLocations
+     * to a payload copied from a block of encodedLength bytes. Corrections to the parity
+     * are dropped.
+     */
+    private void correctPayload(RsWorkspace ws, int numErrors, int encodedLength, byte[] msg, int msgOffset) {
+        int msgLength = encodedLength - minDistance;
+        for (int i = 0; i < numErrors; i++) {
+            int index = encodedLength - 1 - Byte.toUnsignedInt(ws.errorLocations[i]);
+            if (index < msgLength) {
+                msg[msgOffset + index] = field.fieldSub(msg[msgOffset + index], ws.errorVals[i]);
+            }
+        }
+    }
+
+    /**
+     * decodeInterleavedLane corrects one codeword of an interleaved frame in place. Byte j
+     * of the codeword is frame[offset + j * depth + lane]. The syndromes must already be
+     * in ws.syndromes and not all zero.
+     * @return number of corrected bytes, or -1 if the codeword cannot be recovered
+     */
+    int decodeInterleavedLane(RsWorkspace ws, byte[] frame, int offset, int encodedLength, int depth, int lane) {
+        int numErrors = locateErrors(ws, encodedLength);
+        if (numErrors < 0) {
+            return -1;
+        }
+
+        // only the bytes in error are touched, the received polynomial is never built
+        for (int i = 0; i < numErrors; i++) {
+            int index = offset + (encodedLength - 1 - Byte.toUnsignedInt(ws.errorLocations[i])) * depth + lane;
+            frame[index] = field.fieldSub(frame[index], ws.errorVals[i]);
+        }
+        return numErrors;
+    }
+
+    /**
+     * locateErrors finds the error locator of ws.syndromes and its roots, and from those
+     * the error locations and values
+     * @param encodedLength  length of the received block, errors can only be in it
+     * @return number of errors, or -1 if the error locator could not be factored
+     */
+    private int locateErrors(RsWorkspace ws, int encodedLength) {
+        int order = solveKeyEquation(ws, 0);
+        if (order < 0) {
+            return -1;
+        }
+        // XXX fix this vvvv
+        ws.errorLocator.setOrder(order);
+
+        if (order >= 1 && order <= 2 && gapInverse != 0) {
+            // one or two errors are the common case, they are solved in closed form
+            return solveSmallLocator(ws, order, encodedLength);
+        }
+
+        for (int i = 0; i <= ws.errorLocator.getOrder(); i++) {
+            // this is a little strange since the coeffs are logs, not elements
+            // also, we'll be storing log(0) = 0 for any 0 coeffs in the error locator
+            // that would seem bad but we'll just be using this in chien search, and we'll skip all 0 coeffs
+            // (you might point out that log(1) also = 0, which would seem to alias. however, that's ok,
+            //   because log(1) = 255 as well, and in fact that's how it's represented in our log table)
+            ws.errorLocatorLog.setCoeff(i, field.log(Byte.toUnsignedInt(ws.errorLocator.getCoeff(i))));
+        }
+        ws.errorLocatorLog.setOrder(ws.errorLocator.getOrder());
+        if (!chienSearch(ws, 0, encodedLength)) {
+            // roots couldn't be found, so there were too many errors to deal with
+            // RS has failed for this message
+            return -1;
+        }
+
+        if (!findErrorValues(ws)) {
+            return -1;
+        }
+        return ws.errorLocator.getOrder();
+    }
+
+    /**
+     * decodeWithErasures decodes a payload from a block containing payload
+     * and parity bytes. Additionally, the user can provide the indices of bytes
+     * which have been suspected to be corrupted.
+     * This erasure information is typically provided by a demodulating or receiving device.
+     * This function can recover with some additional errors on top of the erasures.
+     *
+     * In order to successfully decode, the quantity (numErasures + 2*numErrors) must be less than
+     * numRoots.
+     * In most cases, if the block is too corrupted, this function will return null and not perform
+     * decoding. It is possible but unlikely that the payload returned will contain
+     * errors.
+     *
+     * @param ws                        scratch space, not to be used by another thread meanwhile
+     * @param encoded                   encoded message
+     * @param erasureLocations          erasure locations
+     * @return                          decoded message or null if the block is too corrupted and cannot be recovered
+     * @throws IllegalArgumentException if encoded message length is larger than block length or number of erasures is
+     *                                  larger than min. distance
+     */
+    public byte[] decodeWithErasures(RsWorkspace ws, byte[] encoded, byte[] erasureLocations) throws IllegalArgumentException {
+        int erasureLength = erasureLocations.length;
+        if (erasureLength == 0) {
+            byte[] msg = new byte[encoded.length - minDistance];
+            return decode(ws, encoded, 0, encoded.length, msg, 0) < 0 ? null : msg;
+        }
+
+        int encodedLength = encoded.length;
+        if (encodedLength > blockLength) {
+            throw new IllegalArgumentException("ReedSolomon.decodeWithErasures: encoded message length must be smaller than block length");
+        }
+        if (erasureLength > minDistance) {
+            throw new IllegalArgumentException("ReedSolomon.decodeWithErasures: erasures  length must be smaller than min distance");
+        }
+
+        // the message is the non-remainder part
+        int msgLength = encodedLength - minDistance;
+
+        byte[] msg = new byte[msgLength];
+
+        // usually the erasures are all there is, and they are solved for directly. only
+        // if the syndromes show more errors does the full search run
+        if (decodeErasures(ws, encoded, 0, encodedLength, erasureLocations, erasureLength, msg, 0) >= 0) {
+            return msg;
+        }
+
+        for (int i = 0; i < erasureLength; i++) {
+            // remap the coordinates of the erasures, byte 0 is the highest order coefficient
+            ws.errorLocations[i] = (byte) (encodedLength - 1 - Byte.toUnsignedInt(erasureLocations[i]));
+        }
+
+        findErrorRootsFromLocations(ws, gRootGap, erasureLength);
+
+        findErrorLocatorFromRoots(ws, erasureLength, ws.erasureLocator);
+
+        // decodeErasures failed, so it left the syndromes of the block in ws.syndromes and
+        // they are not all zero
+        findModifiedSyndromes(ws, ws.erasureLocator);
+
+        byte[] syndromeCopy_U = Arrays.copyOf(ws.syndromes, minDistance);
+
+        for (int i = erasureLength; i < minDistance; i++) {
+            ws.syndromes[i - erasureLength] = ws.modifiedSyndromes[i];
+        }
+
+        int order = solveKeyEquation(ws, erasureLength);
+        if (order < 0) {
+            return null;
+        }
+        // XXX fix this vvvv
+        ws.errorLocator.setOrder(order);
+
+        for (int i = 0; i <= ws.errorLocator.getOrder(); i++) {
+            // this is a little strange since the coeffs are logs, not elements
+            // also, we'll be storing log(0) = 0 for any 0 coeffs in the error locator
+            // that would seem bad but we'll just be using this in chien search, and we'll skip all 0 coeffs
+            // (you might point out that log(1) also = 0, which would seem to alias. however, that's ok,
+            //   because log(1) = 255 as well, and in fact that's how it's represented in our log table)
+            ws.errorLocatorLog.setCoeff(i, field.log((Byte.toUnsignedInt(ws.errorLocator.getCoeff(i)))));
+        }
+        ws.errorLocatorLog.setOrder(ws.errorLocator.getOrder());
+
+        if (!chienSearch(ws, erasureLength, encodedLength)) {
+            // roots couldn't be found, so there were too many errors to deal with
+            // RS has failed for this message
+            return null;
+        }
+
+        Polynomial tempPoly = new Polynomial(ws.errorLocator.getOrder() + erasureLength);
+        mul(field, ws.erasureLocator, ws.errorLocator, tempPoly);
+        Polynomial placeholderPoly = ws.errorLocator;
+        ws.errorLocator = tempPoly;
+
+        System.arraycopy(syndromeCopy_U, 0, ws.syndromes, 0, minDistance);
+        if (!findErrorValues(ws)) {
+            ws.errorLocator = placeholderPoly;
+            return null;
+        }
+
+        System.arraycopy(encoded, 0, msg, 0, msgLength);
+        correctPayload(ws, ws.errorLocator.getOrder(), encodedLength, msg, 0);
+
+        ws.errorLocator = placeholderPoly;
+        return msg;
+    }
+
+    /**
+     * decodeErasures recovers a block whose corrupted bytes are all known, as when a
+     * packet failed its checksum or a disk was lost. The values of the erased bytes are
+     * solved for directly with Forney's algorithm from the erasure locator, without
+     * Berlekamp-Massey or a root search. The syndromes that the erasures do not use must
+     * then be zero, which checks that there are no other errors.
+     * The workspace remembers the last few erasure patterns with their locator and Forney
+     * coefficients, so a block whose erasures sit where an earlier block's did costs only
+     * its syndromes and a numErasures by numErasures matrix-vector product.
+     * @param ws               scratch space, not to be used by another thread meanwhile
+     * @param encoded           holds the encoded message
+     * @param offset            where the encoded message starts
+     * @param encodedLength     length of the encoded message
+     * @param erasureLocations  indices into the encoded message of the bytes that may be wrong
+     * @param numErasures       number of erasure locations, at most min. distance
+     * @param msg               receives encodedLength - min. distance bytes of payload
+     * @param msgOffset         where the payload goes
+     * @return                  numErasures, or -1 if there are errors besides the erasures
+     *                          (or an erasure is listed twice), then msg is not written
+     * @throws IllegalArgumentException  if encoded message length is larger than block length, there
+     *                                   are more erasures than min. distance or one is outside the block
+     */
+    public int decodeErasures(RsWorkspace ws, byte[] encoded, int offset, int encodedLength, byte[] erasureLocations,
+                              int numErasures, byte[] msg, int msgOffset) throws IllegalArgumentException {
+        if (encodedLength > blockLength) {
+            throw new IllegalArgumentException("ReedSolomon.decodeErasures: encoded message length must be smaller than block length");
+        }
+        if (numErasures > minDistance) {
+            throw new IllegalArgumentException("ReedSolomon.decodeErasures: erasures length must be smaller than min distance");
+        }
+        for (int k = 0; k < numErasures; k++) {
+            if (Byte.toUnsignedInt(erasureLocations[k]) >= encodedLength) {
+                throw new IllegalArgumentException("ReedSolomon.decodeErasures: erasure location outside of the block");
+            }
+        }
+        int msgLength = encodedLength - minDistance;
+
+        if (findSyndromes(ws, encoded, offset, encodedLength)) {
+            System.arraycopy(encoded, offset, msg, msgOffset, msgLength);
+            return numErasures;
+        }
+
+        // the pattern holds everything that does not depend on the received bytes, blocks
+        // with a pattern seen lately reuse it
+        ErasurePattern pattern = ws.findErasurePattern(field, fConsecutiveRoot, gRootGap, encodedLength,
+                erasureLocations, numErasures);
+        if (pattern == null) {
+            pattern = buildErasurePattern(encodedLength, erasureLocations, numErasures);
+            ws.erasurePatterns.put(pattern, pattern);
+        }
+        if (!pattern.valid) {
+            return -1;
+        }
+
+        // the coefficients of S(x) gamma(x) from numErasures on are the syndromes left after
+        // removing the erasures, they are zero without other errors
+        byte[] gamma = pattern.gamma;
+        byte[] syndromes = ws.syndromes;
+        for (int i = numErasures; i < minDistance; i++) {
+            byte sum = 0;
+            for (int j = 0; j <= numErasures; j++) {
+                sum ^= field.fieldMul(gamma[j], syndromes[i - j]);
+            }
+            if (sum != 0) {
+                return -1;
+            }
+        }
+
+        // only the payload is written, corrections to the parity are dropped
+        System.arraycopy(encoded, offset, msg, msgOffset, msgLength);
+        byte[] matrix = pattern.matrix;
+        for (int k = 0; k < numErasures; k++) {
+            int index = pattern.index[k];
+            if (index >= msgLength) {
+                continue;
+            }
+            byte value = 0;
+            for (int i = 0, row = k * numErasures; i < numErasures; i++) {
+                value ^= field.fieldMul(matrix[row + i], syndromes[i]);
+            }
+            msg[msgOffset + index] ^= value;
+        }
+        return numErasures;
+    }
+
+    /**
+     * buildErasurePattern prepares the decoding of one set of erasure locations, which
+     * must lie in the block. With omega(x) = S(x) gamma(x) mod x^numErasures, Forney's
+     * e(k) = X(k)^(1 - fcr) omega(X(k)^-1) / gamma'(X(k)^-1) is linear in the syndromes,
+     * and row k of the pattern's matrix holds its coefficients.
+     */
+    private ErasurePattern buildErasurePattern(int encodedLength, byte[] erasureLocations, int numErasures) {
+        ErasurePattern pattern = new ErasurePattern();
+        pattern.probe(encodedLength, Arrays.copyOf(erasureLocations, numErasures), numErasures);
+        pattern.index = new int[numErasures];
+
+        // the erasure locator gamma(x), product of (1 + X(k) x), where X(k) is
+        // alpha^(gap * degree) for the byte at encoded index length - 1 - degree
+        byte[] gamma = new byte[numErasures + 1];
+        gamma[0] = 1;
+        int gap = Byte.toUnsignedInt(gRootGap);
+        int[] locatorLog = new int[numErasures];
+        for (int k = 0; k < numErasures; k++) {
+            int index = Byte.toUnsignedInt(erasureLocations[k]);
+            pattern.index[k] = index;
+            locatorLog[k] = gap * (encodedLength - 1 - index) % 255;
+            byte locator = field.exp(locatorLog[k]);
+            for (int j = k + 1; j > 0; j--) {
+                gamma[j] ^= field.fieldMul(locator, gamma[j - 1]);
+            }
+        }
+        pattern.gamma = gamma;
+
+        // omega(X^-1) = sum over i of S(i) X^-i sum over j < numErasures - i of gamma(j) X^-j,
+        // the inner sums are prefix sums of gamma(j) X^-j
+        int fcr = Byte.toUnsignedInt(fConsecutiveRoot);
+        byte[] matrix = new byte[numErasures * numErasures];
+        byte[] prefix = new byte[numErasures];
+        for (int k = 0; k < numErasures; k++) {
+            byte inverse = field.exp((255 - locatorLog[k]) % 255);
+            byte power = 1;
+            byte sum = 0;
+            for (int j = 0; j < numErasures; j++) {
+                sum ^= field.fieldMul(gamma[j], power);
+                prefix[j] = sum;
+                power = field.fieldMul(power, inverse);
+            }
+            // the formal derivative keeps the odd terms
+            byte inverseSquared = field.fieldMul(inverse, inverse);
+            byte denominator = 0;
+            for (int j = numErasures % 2 == 1 ? numErasures : numErasures - 1; j >= 1; j -= 2) {
+                denominator = (byte) (field.fieldMul(denominator, inverseSquared) ^ gamma[j]);
+            }
+            if (denominator == 0) {
+                // a location listed twice
+                return pattern;
+            }
+            byte scale = field.fieldDiv(field.exp(Math.floorMod(locatorLog[k] * (1 - fcr), 255)), denominator);
+            power = scale;
+            for (int i = 0; i < numErasures; i++) {
+                matrix[k * numErasures + i] = field.fieldMul(power, prefix[numErasures - 1 - i]);
+                power = field.fieldMul(power, inverse);
+            }
+        }
+        pattern.matrix = matrix;
+        pattern.valid = true;
+        return pattern;
+    }
+
+    /**
+     * Calculate all syndromes of the received polynomial at the roots of the generator
+     * because we're evaluating at the roots of the generator, and because the transmitted
+     * polynomial was made to be a product of the generator, we know that the transmitted
+     * polynomial is 0 at these roots
+     * any nonzero syndromes we find here are the values of the error polynomial evaluated
+     * at these roots, so these values give us a window into the error polynomial. if
+     * these syndromes are all zero, then we can conclude the error polynomial is also
+     * zero. if they're nonzero, then we know our message received an error in transit.
+     * @param encoded       Holds the received block
+     * @param offset        Where the received block starts
+     * @param encodedLength Length of the received block
+     * @return              True if syndromes are all zero, false otherwise
+     */
+    private boolean findSyndromes(RsWorkspace ws, byte[] encoded, int offset, int encodedLength) {
+        // profiling revealed that evaluating the received polynomial once per root took
+        // about 50% of the cpu time of decoding. the syndrome engine reads the block once
+        // and only evaluates anything if the block is not a codeword
+        return syndromeEngine.compute(encoded, offset, encodedLength, ws.syndromes, ws.syndromeRemainder);
+    }
+
+    /**
+     * solveKeyEquation writes the error locator to ws.errorLocator with the solver of this
+     * code. With erasures, ws.syndromes holds the modified syndromes from numErasures on,
+     * moved to the front, and ws.modifiedSyndromes all of them.
+     * @return order of the error locator, or -1 if there are more errors than the code can correct
+     */
+    private int solveKeyEquation(RsWorkspace ws, int numErasures) {
+        switch (keySolver) {
+            case CORRECT_RS_INVERSIONLESS_BM:
+                ws.evaluatorReady = false;
+                return findErrorLocatorInversionless(ws, numErasures);
+            case CORRECT_RS_EUCLID:
+                return findErrorLocatorEuclid(ws, numErasures);
+            default:
+                ws.evaluatorReady = false;
+                return findErrorLocator(ws, numErasures);
+        }
+    }
+
+    /**
+     * Inversionless Berlekamp-Massey. Instead of dividing by the last discrepancy, the
+     * locator is scaled by it, lambda = gamma * lambda - discrepancy * x * b, which leaves
+     * a multiple of the locator Berlekamp-Massey finds, with the same roots. Every step
+     * does the same two bulk multiplies of the whole register, whatever the discrepancy.
+     * @return register length, the order of the error locator
+     */
+    private int findErrorLocatorInversionless(RsWorkspace ws, int numErasures) {
+        int numSyndromes = minDistance - numErasures;
+        int width = minDistance + 1;
+        byte[] syndromes = ws.syndromes;
+        byte[] lambda = ws.solverScratch[0];
+        byte[] b = ws.solverScratch[1];
+        byte[] next = ws.solverScratch[2];
+        Arrays.fill(lambda, (byte) 0);
+        Arrays.fill(b, (byte) 0);
+        lambda[0] = 1;
+        b[0] = 1;
+        byte gamma = 1;
+        int length = 0;
+
+        for (int r = 0; r < numSyndromes; r++) {
+            byte discrepancy = 0;
+            for (int i = 0; i <= r; i++) {
+                discrepancy ^= field.fieldMul(lambda[i], syndromes[r - i]);
+            }
+
+            field.fieldMulConst(lambda, 0, gamma, next, 0, width);
+            field.fieldMulConstAdd(b, 0, discrepancy, next, 1, width - 1);
+
+            byte[] free;
+            if (discrepancy != 0 && 2 * length <= r) {
+                // lengthen the register, b becomes the old locator
+                length = r + 1 - length;
+                gamma = discrepancy;
+                free = b;
+                b = lambda;
+            } else {
+                System.arraycopy(b, 0, b, 1, width - 1);
+                b[0] = 0;
+                free = lambda;
+            }
+            lambda = next;
+            next = free;
+        }
+
+        ws.errorLocator.flushCoeff();
+        for (int i = 0; i <= length; i++) {
+            ws.errorLocator.setCoeff(i, lambda[i]);
+        }
+        ws.errorLocator.setOrder(length);
+        return length;
+    }
+
+    /**
+     * Euclid's algorithm on x^(2t) and T(x), the syndromes times the erasure locator. It
+     * stops at the first remainder of degree below t + numErasures / 2, which is then the
+     * error evaluator, and its cofactor the error locator, both scaled by the same
+     * constant. One division per quotient term, no separate multiply for the evaluator.
+     * @return order of the error locator, or -1 if there are too many errors
+     */
+    private int findErrorLocatorEuclid(RsWorkspace ws, int numErasures) {
+        int width = minDistance + 1;
+        byte[] remainderPrev = ws.solverScratch[0];
+        byte[] remainder = ws.solverScratch[1];
+        byte[] cofactorPrev = ws.solverScratch[2];
+        byte[] cofactor = ws.solverScratch[3];
+        Arrays.fill(remainderPrev, (byte) 0);
+        Arrays.fill(remainder, (byte) 0);
+        Arrays.fill(cofactorPrev, (byte) 0);
+        Arrays.fill(cofactor, (byte) 0);
+        remainderPrev[minDistance] = 1;
+        System.arraycopy(numErasures == 0 ? ws.syndromes : ws.modifiedSyndromes, 0, remainder, 0, minDistance);
+        cofactor[0] = 1;
+        int degreePrev = minDistance;
+        int degree = degree(remainder, minDistance - 1);
+        int cofactorDegreePrev = -1;
+        int cofactorDegree = 0;
+
+        while (2 * degree >= minDistance + numErasures) {
+            // remainderPrev %= remainder, cofactorPrev += quotient * cofactor
+            byte leadInverse = field.fieldDiv((byte) 1, remainder[degree]);
+            while (degreePrev >= degree) {
+                int shift = degreePrev - degree;
+                byte q = field.fieldMul(remainderPrev[degreePrev], leadInverse);
+                field.fieldMulConstAdd(remainder, 0, q, remainderPrev, shift, degree + 1);
+                field.fieldMulConstAdd(cofactor, 0, q, cofactorPrev, shift, Math.min(cofactorDegree + 1, width - shift));
+                degreePrev = degree(remainderPrev, degreePrev - 1);
+            }
+            cofactorDegreePrev = degree(cofactorPrev, width - 1);
+
+            byte[] swap = remainderPrev;
+            remainderPrev = remainder;
+            remainder = swap;
+            swap = cofactorPrev;
+            cofactorPrev = cofactor;
+            cofactor = swap;
+            int swapDegree = degreePrev;
+            degreePrev = degree;
+            degree = swapDegree;
+            swapDegree = cofactorDegreePrev;
+            cofactorDegreePrev = cofactorDegree;
+            cofactorDegree = swapDegree;
+        }
+
+        // a locator for e errors and the erasures has an evaluator of degree below
+        // e + numErasures, otherwise the remainder is no evaluator
+        if (2 * cofactorDegree > minDistance - numErasures || degree >= cofactorDegree + numErasures) {
+            return -1;
+        }
+        ws.errorLocator.flushCoeff();
+        for (int i = 0; i <= cofactorDegree; i++) {
+            ws.errorLocator.setCoeff(i, cofactor[i]);
+        }
+        ws.errorLocator.setOrder(cofactorDegree);
+        ws.errorEvaluator.flushCoeff();
+        for (int i = 0; i <= degree; i++) {
+            ws.errorEvaluator.setCoeff(i, remainder[i]);
+        }
+        ws.evaluatorReady = true;
+        return cofactorDegree;
+    }
+
+    // degree of the polynomial with coefficients poly[0..max], -1 for 0
+    private static int degree(byte[] poly, int max) {
+        int degree = max;
+        while (degree >= 0 && poly[degree] == 0) {
+            degree--;
+        }
+        return degree;
+    }
+
+    /**
+     * Berlekamp-Massey algorithm to find LFSR that describes syndromes
+     * @param numErasures
+     * @return Returns number of errors and writes the error locator polynomial to errorLocator
+     */
+    private int findErrorLocator(RsWorkspace ws, int numErasures) {
+        Polynomial errorLocator = ws.errorLocator;
+        Polynomial lastErrorLocator = ws.lastErrorLocator;
+        byte[] syndromes = ws.syndromes;
+        int numerrors = 0;
+        errorLocator.flushCoeff();
+
+        // initialize to f(x) = 1
+        errorLocator.setCoeff(0, (byte) 1);
+        errorLocator.setOrder(0);
+        lastErrorLocator.setOrder(0);
+
+        lastErrorLocator.copyCoeff(errorLocator);
+
+        byte discrepancy;
+        byte lastDiscrepancy = 1;
+        int delayLength = 1;
+
+        for (int i = errorLocator.getOrder(); i < minDistance - numErasures; i++) {
+            discrepancy = syndromes[i];
+            for (int j = 1; j <= numerrors; j++) {
+                discrepancy = (byte) field.fieldAdd(discrepancy, field.fieldMul(errorLocator.getCoeff(j), syndromes[i - j]));
+            }
+
+            if (discrepancy == 0) {
+                // our existing LFSR describes the new syndrome as well
+                // leave it as-is but update the number of delay elements
+                //   so that if a discrepancy occurs later we can eliminate it
+                delayLength++;
+                continue;
+            }
+
+            if (2 * numerrors <= i) {
+                // there's a discrepancy, but we still have room for more taps
+                // lengthen LFSR by one tap and set weight to eliminate discrepancy
+
+                // shift the last locator by the delay length, multiply by discrepancy,
+                //   and divide by the last discrepancy
+                // we move down because we're shifting up, and this prevents overwriting
+                for (int j = lastErrorLocator.getOrder(); j >= 0; j--) {
+                    // the bounds here will be ok since we have a headroom of numerrors
+                    lastErrorLocator.setCoeff(j + delayLength, field.fieldDiv(
+                            field.fieldMul(lastErrorLocator.getCoeff(j), discrepancy), lastDiscrepancy));
+                }
+                for (int j = delayLength - 1; j >= 0; j--) {
+                    lastErrorLocator.setCoeff(j, (byte) 0);
+                }
+
+                // locator = locator - last_locator
+                // we will also update last_locator to be locator before this loop takes place
+                byte temp;
+                for (int j = 0; j <= lastErrorLocator.getOrder() + delayLength; j++) {
+                    temp = errorLocator.getCoeff(j);
+                    errorLocator.setCoeff(j, field.fieldAdd(errorLocator.getCoeff(j), lastErrorLocator.getCoeff(j)));
+                    lastErrorLocator.setCoeff(j, temp);
+                }
+                int tempOrder = errorLocator.getOrder();
+                errorLocator.setOrder(lastErrorLocator.getOrder() + delayLength);
+                lastErrorLocator.setOrder(tempOrder);
+
+                // now last_locator is locator before we started,
+                //   and locator is (locator - (discrepancy/last_discrepancy) * x^(delay_length) * last_locator)
+
+                numerrors = i + 1 - numerrors;
+                lastDiscrepancy = discrepancy;
+                delayLength = 1;
+                continue;
+            }
+
+            // no more taps
+            // unlike the previous case, we are preserving last locator,
+            //    but we'll update locator as before
+            // we're basically flattening the two loops from the previous case because
+            //    we no longer need to update last_locator
+            for (int j = lastErrorLocator.getOrder(); j >= 0; j--) {
+                errorLocator.setCoeff(j + delayLength, (byte) field.fieldAdd(errorLocator.getCoeff(j + delayLength),
+                        field.fieldDiv(field.fieldMul(lastErrorLocator.getCoeff(j), discrepancy), lastDiscrepancy)));
+            }
+            errorLocator.setOrder((lastErrorLocator.getOrder() + delayLength) > errorLocator.getOrder() ?
+                    lastErrorLocator.getOrder() + delayLength : errorLocator.getOrder());
+            delayLength++;
+        }
+        return errorLocator.getOrder();
+    }
+
+    /**
+     * solveSmallLocator finds the locations and values of one or two errors directly from
+     * the error locator and the first two syndromes, without a root search or Forney.
+     * With locators X = alpha^(gap * location), S(i) = sum of e * X^(fcr + i).
+     * @return order, or -1 if the locator has no roots in the block
+     */
+    private int solveSmallLocator(RsWorkspace ws, int order, int encodedLength) {
+        byte l0 = ws.errorLocator.getCoeff(0);
+        byte l1 = ws.errorLocator.getCoeff(1);
+        int fcr = Byte.toUnsignedInt(fConsecutiveRoot);
+        // berlekamp-massey can end with a locator of lower degree than its order, which
+        // has too few roots, and euclid with one that has a root at 0
+        if (ws.errorLocator.getCoeff(order) == 0 || l0 == 0) {
+            return -1;
+        }
+        if (order == 1) {
+            // lambda(x) = l0 + l1 x vanishes at X^-1 = l0 / l1, and S(0) = e X^fcr
+            byte x = field.fieldDiv(l1, l0);
+            int location = locationOf(x);
+            if (location >= encodedLength) {
+                return -1;
+            }
+            ws.errorLocations[0] = (byte) location;
+            ws.errorRoots[0] = field.fieldDiv((byte) 1, x);
+            ws.errorVals[0] = field.fieldMul(ws.syndromes[0], field.fieldPow(x, -fcr));
+            return 1;
+        }
+
+        // x^2 lambda(1/x) = l0 x^2 + l1 x + l2 vanishes at X1 and X2. a double root
+        // (l1 = 0) cannot come from two distinct errors
+        byte l2 = ws.errorLocator.getCoeff(2);
+        if (l1 == 0) {
+            return -1;
+        }
+        // divided by l0 this is x^2 + a x + b, and with x = a y it becomes
+        // y^2 + y + b / a^2, solved by table lookup
+        byte a = field.fieldDiv(l1, l0);
+        byte b = field.fieldDiv(l2, l0);
+        int y = quadraticRoot[Byte.toUnsignedInt(field.fieldDiv(b, field.fieldMul(a, a)))];
+        if (y < 0) {
+            return -1;
+        }
+        byte x1 = field.fieldMul(a, (byte) y);
+        byte x2 = (byte) (x1 ^ a);
+        int location1 = locationOf(x1);
+        int location2 = locationOf(x2);
+        if (location1 >= encodedLength || location2 >= encodedLength) {
+            return -1;
+        }
+
+        // with Y = e X^fcr, S(0) = Y1 + Y2 and S(1) = Y1 X1 + Y2 X2, and X1 + X2 = a
+        byte y1 = field.fieldDiv((byte) (ws.syndromes[1] ^ field.fieldMul(ws.syndromes[0], x2)), a);
+        byte y2 = (byte) (ws.syndromes[0] ^ y1);
+        ws.errorLocations[0] = (byte) location1;
+        ws.errorLocations[1] = (byte) location2;
+        ws.errorRoots[0] = field.fieldDiv((byte) 1, x1);
+        ws.errorRoots[1] = field.fieldDiv((byte) 1, x2);
+        ws.errorVals[0] = field.fieldMul(y1, field.fieldPow(x1, -fcr));
+        ws.errorVals[1] = field.fieldMul(y2, field.fieldPow(x2, -fcr));
+        return 2;
+    }
+
+    // location of the error with locator x = alpha^(gap * location), x not 0
+    private int locationOf(byte x) {
+        // log(1) is 255, which is location 0 as well
+        return Byte.toUnsignedInt(field.log(Byte.toUnsignedInt(x))) % 255 * gapInverse % 255;
+    }
+
+    /**
+     * chienSearch finds the roots of ws.errorLocatorLog among the positions of a block of
+     * encodedLength bytes, and writes them and their locations to ws.errorRoots and
+     * ws.errorLocations from numSkip on. Position d has the root alpha^(-gap * d). Every
+     * term of the locator is kept as a log and stepped to the next position by adding a
+     * constant, so each position costs one lookup per nonzero coefficient. The search
+     * ends when all roots are found, or as soon as too few positions remain for them.
+     * Roots in the virtual padding of a shortened block are never reported, such a
+     * locator fails.
+     * @return true if the locator has as many roots in the block as its order
+     */
+    boolean chienSearch(RsWorkspace ws, int numSkip, int encodedLength) {
+        Polynomial locatorLog = ws.errorLocatorLog;
+        int order = locatorLog.getOrder();
+        if (order == 0) {
+            return true;
+        }
+
+        // zero coefficients are stored as log 0 and skipped, the others are kept in [0, 255)
+        int[] termLog = ws.chienTermLog;
+        int[] stepLog = ws.chienTermStep;
+        int terms = 0;
+        for (int j = 0; j <= order; j++) {
+            int coeffLog = Byte.toUnsignedInt(locatorLog.getCoeff(j));
+            if (coeffLog != 0) {
+                termLog[terms] = coeffLog % 255;
+                stepLog[terms] = chienStepLog[j];
+                terms++;
+            }
+        }
+
+        int found = 0;
+        int rootLog = 0;
+        for (int d = 0; d < encodedLength; d++) {
+            if (order - found > encodedLength - d) {
+                return false;
+            }
+            int sum = 0;
+            for (int k = 0; k < terms; k++) {
+                int log = termLog[k];
+                sum ^= field.exp(log);
+                log += stepLog[k];
+                termLog[k] = log >= 255 ? log - 255 : log;
+            }
+            if (sum == 0) {
+                ws.errorRoots[numSkip + found] = field.exp(rootLog);
+                ws.errorLocations[numSkip + found] = (byte) d;
+                if (++found == order) {
+                    return true;
+                }
+            }
+            rootLog += chienStepLog[1];
+            if (rootLog >= 255) {
+                rootLog -= 255;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the roots of the error locator polynomial (Chien search)
+     * @param numSkip
+     * @param locatorLog
+     * @param roots
+     * @param elementExp
+     * @return  True if errors are recoverable, false otherwise
+     */
+    public boolean factorizeErrorLocator(int numSkip, Polynomial locatorLog, byte[] roots, byte[][] elementExp) {
+        // normally it'd be tricky to find all the roots
+        // but, the finite field is awfully finite...
+        // just brute force search across every field element
+        int root = numSkip;
+        for (int i = 0; i < locatorLog.getOrder(); i++) {
+            roots[numSkip + i] = 0;
+        }
+        for (short i = 0; Short.toUnsignedInt(i) < 256; i++) {
+            // we make two optimizations here to help this search go faster
+            // a) we have precomputed the first successive powers of every single element
+            //   in the field. we need at most n powers, where n is the largest possible
+            //   degree of the error locator
+            // b) we have precomputed the error locator polynomial in log form, which
+            //   helps reduce some lookups that would be done here
+            if (locatorLog.evalLogLut(field, elementExp[Short.toUnsignedInt(i)]) == 0) {
+                roots[root] = (byte) i;
+                root++;
+            }
+        }
+        // this is where we find out if we are have too many errors to recover from
+        // berlekamp-massey may have built an error locator that has 0 discrepancy
+        // on the syndromes but doesn't have enough roots
+        return root == locatorLog.getOrder() + numSkip;
+    }
+
+    /**
+     * use error locator and syndromes to find the error evaluator polynomial
+     * @param locator
+     * @param syndromes
+     * @param errorEvaluator
+     */
+    public void findErrorEvaluator(Polynomial locator, Polynomial syndromes, Polynomial errorEvaluator) {
+        // the error evaluator, omega(x), is S(x)*Lamba(x) mod x^(2t)
+        // where S(x) is a polynomial constructed from the syndromes
+        //   S(1) + S(2)*x + ... + S(2t)*x(2t - 1)
+        // and Lambda(x) is the error locator
+        // the modulo is implicit here -- we have limited the max length of error_evaluator,
+        //   which polynomial_mul will interpret to mean that it should not compute
+        //   powers larger than that, which is the same as performing mod x^(2t)
+        Polynomial.mul(field, locator, syndromes, errorEvaluator);
+    }
+
+    /**
+     * use error locator, error roots and syndromes to find the error values
+     * that is, the elements in the finite field which can be added to the received
+     *   polynomial at the locations of the error roots in order to produce the
+     *   transmitted polynomial
+     * forney algorithm
+     * @return false if the error locator has a repeated root, the block cannot be recovered
+     */
+    boolean findErrorValues(RsWorkspace ws) {
+        // error value e(j) = -(X(j)^(1-c) * omega(X(j)^-1))/(lambda'(X(j)^-1))
+        // where X(j)^-1 is a root of the error locator, omega(X) is the error evaluator,
+        //   lambda'(X) is the first formal derivative of the error locator,
+        //   and c is the first consecutive root of the generator used in encoding
+
+        // first find omega(X), the error evaluator
+        // we generate S(x), the polynomial constructed from the roots of the syndromes
+        // this is *not* the polynomial constructed by expanding the products of roots
+        // S(x) = S(1) + S(2)*x + ... + S(2t)*x(2t - 1)
+        // (euclid's algorithm already left it in errorEvaluator)
+        if (!ws.evaluatorReady) {
+            Polynomial syndromePoly = new Polynomial(minDistance - 1, ws.syndromes);
+            ws.errorEvaluator.flushCoeff();
+            findErrorEvaluator(ws.errorLocator, syndromePoly, ws.errorEvaluator);
+        }
+
+        // now find lambda'(X)
+        ws.errorLocatorDerivative.setOrder(ws.errorLocator.getOrder() - 1);
+        formalDerivative(field, ws.errorLocator, ws.errorLocatorDerivative);
+
+        // calculate each e(j)
+        boolean valid = true;
+        for (int i = 0; i < ws.errorLocator.getOrder(); i++) {
+            if (Byte.toUnsignedInt(ws.errorRoots[i]) == 0) {
+                continue;
+            }
+            byte derivative = ws.errorLocatorDerivative.evalLut(field, elementExp[Byte.toUnsignedInt(ws.errorRoots[i])]);
+            if (derivative == 0) {
+                // a repeated root, which no error pattern the code can correct leaves
+                valid = false;
+                continue;
+            }
+            ws.errorVals[i] = field.fieldMul(field.fieldPow(ws.errorRoots[i], Byte.toUnsignedInt(fConsecutiveRoot) - 1),
+                    field.fieldDiv(
+                            ws.errorEvaluator.evalLut(field, elementExp[Byte.toUnsignedInt(ws.errorRoots[i])]),
+                            derivative));
+        }
+        return valid;
+    }
+
+    void findErrorLocations(RsWorkspace ws, int numErrors) {
+        for (int i = 0; i < numErrors; i++) {
+            // the error roots are the reciprocals of the error locations, so div 1 by them
+
+            // we do mod 255 here because the log table aliases at index 1
+            // the log of 1 is both 0 and 255 (alpha^255 = alpha^0 = 1)
+            // for most uses it makes sense to have log(1) = 255, but in this case
+            // we're interested in a byte index, and the 255th index is not even valid
+            // just wrap it back to 0
+
+            if (Byte.toUnsignedInt(ws.errorRoots[i]) == 0) {
+                continue;
+            }
+
+            byte loc_U = field.fieldDiv((byte) 1, ws.errorRoots[i]);
+            for (int j = 0; j < 256; j++) {
+                if (field.fieldPow((byte) j, Byte.toUnsignedInt(gRootGap)) == loc_U) {
+                    ws.errorLocations[i] = field.log(j);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * erasure method -- take given locations and convert to roots
+     * this is the inverse of findErrorLocations
+     * @param generatorRootGap
+     * @param numErrors
+     */
+    private void findErrorRootsFromLocations(RsWorkspace ws, byte generatorRootGap, int numErrors) {
+        for (int i = 0; i < numErrors; i++) {
+            byte loc_U = field.fieldPow(field.exp(Byte.toUnsignedInt(ws.errorLocations[i])), Byte.toUnsignedInt(generatorRootGap));
+            // field_element_t loc = field.exp[error_locations[i]];
+            ws.errorRoots[i] = field.fieldDiv((byte) 1, loc_U);
+        }
+    }
+
+    /**
+     * erasure method -- given the roots of the error locator, create the polynomial
+     * @param numErrors
+     * @param errorLocator
+     */
+    private void findErrorLocatorFromRoots(RsWorkspace ws, int numErrors, Polynomial errorLocator) {
+        // multiply out roots to build the error locator polynomial
+        errorLocator.initFromRoots(field, numErrors, ws.errorRoots, ws.initFromRootsScratch);
+    }
+
+    /**
+     * erasure method
+     * @param errorLocator
+     */
+    private void findModifiedSyndromes(RsWorkspace ws, Polynomial errorLocator) {
+        Polynomial syndromePoly = new Polynomial(minDistance - 1, ws.syndromes);
+        Polynomial modifiedSyndromePoly = new Polynomial(minDistance - 1);
+
+        mul(field, errorLocator, syndromePoly, modifiedSyndromePoly);
+        System.arraycopy(modifiedSyndromePoly.getCoeff(), 0, ws.modifiedSyndromes, 0, minDistance);
+    }
+
+    /**
+     * Build generator from roots
+     * coeff must be of size nroots + 1
+     * e.g. 2 roots (x + alpha)(x + alpha^2) yields a poly with 3 terms x^2 + g0*x + g1
+     * @param nroots
+     * @param roots
+     * @return
+     */
+    private Polynomial reedSolomonBuildGenerator(int nroots, byte[] roots) {
+        for (int i = 0; i < nroots; i++) {
+            roots[i] = field.exp(Integer.remainderUnsigned(
+                    gRootGap * (i + Byte.toUnsignedInt(fConsecutiveRoot)), 255));
+        }
+        return new Polynomial(field, nroots, roots);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * libcorrect4j
+ * RsWorkspace.java
+ */
+
+package libcorrect.reed_solomon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The scratch space of one decode with a ReedSolomonCode, a few hundred bytes.
+ * A workspace must not be used by two threads at the same time, but any number of
+ * workspaces can decode with the same code concurrently.
+ */
+public class RsWorkspace {
+    // erasure patterns remembered per workspace, least recently used ones are dropped
+    private final static int MAX_ERASURE_PATTERNS = 16;
+
+    final int minDistance;
+    final byte[] syndromes;
+    final byte[] syndromeRemainder;
+    final byte[] modifiedSyndromes;
+    Polynomial errorLocator;
+    final Polynomial errorLocatorLog;
+    final Polynomial erasureLocator;
+    final byte[] errorRoots;
+    final byte[] errorVals;
+    final byte[] errorLocations;
+
+    //  scratch (do no allocations at steady state)
+    //  used during find_error_locator
+    final Polynomial lastErrorLocator;
+
+    // used during error value search
+    final Polynomial errorEvaluator;
+    final Polynomial errorLocatorDerivative;
+    final Polynomial[] initFromRootsScratch = new Polynomial[2];
+
+    // used by the inversionless and euclidean key equation solvers
+    final byte[][] solverScratch;
+    // set when the key equation solver left the error evaluator in errorEvaluator
+    boolean evaluatorReady;
+
+    // erasure patterns seen lately, and the key for looking them up. the patterns belong
+    // to the field and roots of the code that built them, a workspace handed to another
+    // code starts over
+    private Field patternField;
+    private byte patternFirstRoot;
+    private byte patternRootGap;
+    final Map<ErasurePattern, ErasurePattern> erasurePatterns =
+            new LinkedHashMap<ErasurePattern, ErasurePattern>(MAX_ERASURE_PATTERNS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ErasurePattern, ErasurePattern> eldest) {
+                    return size() > MAX_ERASURE_PATTERNS;
+                }
+            };
+    private final ErasurePattern erasureProbe = new ErasurePattern();
+
+    // used during chien search, one entry per nonzero term of the error locator
+    final int[] chienTermLog;
+    final int[] chienTermStep;
+
+    /**
+     * @param code  the code this workspace decodes with
+     */
+    public RsWorkspace(ReedSolomonCode code) {
+        minDistance = code.getNumRoots();
+        syndromes = new byte[minDistance];
+        syndromeRemainder = new byte[minDistance];
+        modifiedSyndromes = new byte[2 * minDistance];
+        errorLocator = new Polynomial(minDistance);
+        errorLocatorLog = new Polynomial(minDistance);
+        erasureLocator = new Polynomial(minDistance);
+
+        errorRoots = new byte[2 * minDistance];
+        errorVals = new byte[minDistance];
+        errorLocations = new byte[minDistance];
+
+        lastErrorLocator = new Polynomial(minDistance);
+        errorEvaluator = new Polynomial(minDistance - 1);
+        errorLocatorDerivative = new Polynomial(minDistance - 1);
+
+        initFromRootsScratch[0] = new Polynomial(minDistance);
+        initFromRootsScratch[1] = new Polynomial(minDistance);
+
+        solverScratch = new byte[4][minDistance + 1];
+
+        chienTermLog = new int[minDistance + 1];
+        chienTermStep = new int[minDistance + 1];
+    }
+
+    /**
+     * findErasurePattern looks up a pattern built by a code with this field and these roots
+     * @return the pattern, or null if there is none
+     */
+    ErasurePattern findErasurePattern(Field field, byte firstConsecutiveRoot, byte generatorRootGap,
+                                      int encodedLength, byte[] locations, int numErasures) {
+        if (field != patternField || firstConsecutiveRoot != patternFirstRoot || generatorRootGap != patternRootGap) {
+            erasurePatterns.clear();
+            patternField = field;
+            patternFirstRoot = firstConsecutiveRoot;
+            patternRootGap = generatorRootGap;
+        }
+        ErasurePattern pattern = erasurePatterns.get(erasureProbe.probe(encodedLength, locations, numErasures));
+        // the probe must not keep the caller's array alive
+        erasureProbe.locations = null;
+        return pattern;
+    }
+}
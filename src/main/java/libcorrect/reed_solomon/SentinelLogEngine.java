@@ -0,0 +1,62 @@
+/*
+ * libcorrect4j
+ * SentinelLogEngine.java
+ */
+
+package libcorrect.reed_solomon;
+
+// multiplies by adding logarithms kept as ints, where log(0) is a sentinel standing in for
+// -inf: it is large enough that any sum or difference involving it lands in the zero
+// filled upper part of the exp table, so no operand needs a zero check
+public class SentinelLogEngine extends FieldEngine {
+    // logs of nonzero elements are at most 254, so sums of two reach 508
+    private final static int LOG_ZERO = 2 * 255;
+
+    private final int[] intLogTable;
+    // alpha^i up to 2 * 255, zero from LOG_ZERO on
+    private final byte[] sentinelExpTable;
+
+    public SentinelLogEngine(byte[] expTable, byte[] logTable) {
+        super(expTable, logTable);
+        intLogTable = new int[256];
+        intLogTable[0] = LOG_ZERO;
+        for (int i = 1; i < 256; i++) {
+            intLogTable[i] = Byte.toUnsignedInt(logTable[i]) % 255;
+        }
+        // the largest index is log(0) - log(1) + 255 for a division, or 2 log(0) for a product
+        sentinelExpTable = new byte[2 * LOG_ZERO + 1];
+        System.arraycopy(expTable, 0, sentinelExpTable, 0, LOG_ZERO);
+    }
+
+    @Override
+    public byte mul(byte l, byte r) {
+        return sentinelExpTable[intLogTable[Byte.toUnsignedInt(l)] + intLogTable[Byte.toUnsignedInt(r)]];
+    }
+
+    @Override
+    public byte div(byte l, byte r) throws IllegalArgumentException {
+        if (r == 0) {
+            if (l == 0) {
+                return 0;
+            }
+            throw new IllegalArgumentException("fieldDiv: illegal dividor r==0");
+        }
+        return sentinelExpTable[255 + intLogTable[Byte.toUnsignedInt(l)] - intLogTable[Byte.toUnsignedInt(r)]];
+    }
+
+    @Override
+    public void mulConst(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        int cLog = intLogTable[Byte.toUnsignedInt(c)];
+        for (int i = 0; i < len; i++) {
+            dst[dstOffset + i] = sentinelExpTable[intLogTable[Byte.toUnsignedInt(src[srcOffset + i])] + cLog];
+        }
+    }
+
+    @Override
+    public void mulConstAdd(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        int cLog = intLogTable[Byte.toUnsignedInt(c)];
+        for (int i = 0; i < len; i++) {
+            dst[dstOffset + i] ^= sentinelExpTable[intLogTable[Byte.toUnsignedInt(src[srcOffset + i])] + cLog];
+        }
+    }
+}
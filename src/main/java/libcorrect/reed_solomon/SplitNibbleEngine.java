@@ -0,0 +1,66 @@
+/*
+ * libcorrect4j
+ * SplitNibbleEngine.java
+ */
+
+package libcorrect.reed_solomon;
+
+// multiplication is linear over GF(2), so c * x = c * (x & 0x0f) + c * (x & 0xf0).
+// keeps the 16 products of every c with each nibble, 8K in all. a multiply by a constant
+// only touches two 16 byte tables, the layout of a byte shuffle in SIMD code
+public class SplitNibbleEngine extends FieldEngine {
+    // c * n at c << 4 | n, and c * (n << 4) at the same place in the high table
+    private final byte[] lowTable;
+    private final byte[] highTable;
+    private final byte[] inverseTable;
+
+    public SplitNibbleEngine(byte[] expTable, byte[] logTable) {
+        super(expTable, logTable);
+        lowTable = new byte[256 * 16];
+        highTable = new byte[256 * 16];
+        inverseTable = new byte[256];
+        for (int c = 1; c < 256; c++) {
+            int cLog = Byte.toUnsignedInt(logTable[c]);
+            for (int n = 1; n < 16; n++) {
+                lowTable[c << 4 | n] = expTable[cLog + Byte.toUnsignedInt(logTable[n])];
+                highTable[c << 4 | n] = expTable[cLog + Byte.toUnsignedInt(logTable[n << 4])];
+            }
+            inverseTable[c] = inverse((byte) c);
+        }
+    }
+
+    @Override
+    public byte mul(byte l, byte r) {
+        int row = Byte.toUnsignedInt(l) << 4;
+        return (byte) (lowTable[row | r & 0x0f] ^ highTable[row | (r & 0xf0) >>> 4]);
+    }
+
+    @Override
+    public byte div(byte l, byte r) throws IllegalArgumentException {
+        if (r == 0) {
+            if (l == 0) {
+                return 0;
+            }
+            throw new IllegalArgumentException("fieldDiv: illegal dividor r==0");
+        }
+        return mul(inverseTable[Byte.toUnsignedInt(r)], l);
+    }
+
+    @Override
+    public void mulConst(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        int row = Byte.toUnsignedInt(c) << 4;
+        for (int i = 0; i < len; i++) {
+            byte s = src[srcOffset + i];
+            dst[dstOffset + i] = (byte) (lowTable[row | s & 0x0f] ^ highTable[row | (s & 0xf0) >>> 4]);
+        }
+    }
+
+    @Override
+    public void mulConstAdd(byte[] src, int srcOffset, byte c, byte[] dst, int dstOffset, int len) {
+        int row = Byte.toUnsignedInt(c) << 4;
+        for (int i = 0; i < len; i++) {
+            byte s = src[srcOffset + i];
+            dst[dstOffset + i] ^= lowTable[row | s & 0x0f] ^ highTable[row | (s & 0xf0) >>> 4];
+        }
+    }
+}
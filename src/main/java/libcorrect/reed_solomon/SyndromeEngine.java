@@ -0,0 +1,113 @@
+/*
+ * libcorrect4j
+ * SyndromeEngine.java
+ */
+
+package libcorrect.reed_solomon;
+
+/**
+ * Computes all syndromes of a received block in one pass over it.
+ * The block is run through the parity register, which leaves
+ * R(x) = r(x) * x^numRoots mod g(x). A valid codeword leaves nothing, so the common
+ * error-free case costs about as much as encoding and returns without any evaluation.
+ * Otherwise, as every root of g(x) is also a root of g(x) * q(x), the syndromes are
+ * S(i) = r(root(i)) = R(root(i)) * root(i)^-numRoots, and R has only numRoots
+ * coefficients. They are evaluated with Horner's rule and a full multiplication table
+ * per root, one lookup and one xor per coefficient.
+ *
+ * The tables are read-only after construction, the caller passes in the scratch space.
+ */
+public class SyndromeEngine {
+    private final Field field;
+    private final LfsrEncoder encoder;
+    private final int numRoots;
+    // row i holds every element times root(i)
+    private final byte[][] rootMul_U;
+    // root(i)^-numRoots
+    private final byte[] correction_U;
+
+    /**
+     * @param field           field of the code
+     * @param encoder         parity register of the code
+     * @param generatorRoots  roots of the generator polynomial, one per parity byte
+     */
+    public SyndromeEngine(Field field, LfsrEncoder encoder, byte[] generatorRoots) {
+        this.field = field;
+        this.encoder = encoder;
+        this.numRoots = encoder.getNumRoots();
+        rootMul_U = new byte[numRoots][256];
+        correction_U = new byte[numRoots];
+        for (int i = 0; i < numRoots; i++) {
+            for (int e = 1; e < 256; e++) {
+                rootMul_U[i][e] = field.fieldMul((byte) e, generatorRoots[i]);
+            }
+            correction_U[i] = field.fieldPow(generatorRoots[i], -numRoots);
+        }
+    }
+
+    /**
+     * compute writes the syndromes of the block received[offset..offset+length), which
+     * is ordered like the output of encode, highest order coefficient first
+     * @param syndromes  receives numRoots syndromes
+     * @param remainder  scratch space of numRoots bytes
+     * @return true if all syndromes are zero
+     */
+    public boolean compute(byte[] received, int offset, int length, byte[] syndromes, byte[] remainder) {
+        encoder.encode(received, offset, length, remainder, 0);
+        int nonzero_U = 0;
+        for (int k = 0; k < numRoots; k++) {
+            nonzero_U |= remainder[k];
+        }
+        if (nonzero_U == 0) {
+            for (int i = 0; i < numRoots; i++) {
+                syndromes[i] = 0;
+            }
+            return true;
+        }
+
+        for (int i = 0; i < numRoots; i++) {
+            byte[] mul_U = rootMul_U[i];
+            int eval_U = 0;
+            for (int k = 0; k < numRoots; k++) {
+                eval_U = (mul_U[eval_U] ^ remainder[k]) & 0xff;
+            }
+            syndromes[i] = field.fieldMul((byte) eval_U, correction_U[i]);
+        }
+        return false;
+    }
+
+    /**
+     * computeInterleaved runs depth interleaved blocks through the parity register at
+     * once, see LfsrEncoder.encodeInterleaved. Only the lanes whose remainder is not zero
+     * need their syndromes, from laneSyndromes.
+     * @param length     block length of each lane
+     * @param remainder  scratch space of depth * numRoots bytes
+     * @return bit mask of the lanes with nonzero syndromes
+     */
+    public int computeInterleaved(byte[] received, int offset, int length, int depth, byte[] remainder) {
+        encoder.encodeInterleaved(received, offset, length, depth, remainder, 0);
+        int mask = 0;
+        for (int i = 0; i < depth * numRoots; i++) {
+            if (remainder[i] != 0) {
+                mask |= 1 << i % depth;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * laneSyndromes writes the syndromes of one lane from the remainders left by
+     * computeInterleaved
+     * @param syndromes  receives numRoots syndromes
+     */
+    public void laneSyndromes(byte[] remainder, int depth, int lane, byte[] syndromes) {
+        for (int i = 0; i < numRoots; i++) {
+            byte[] mul_U = rootMul_U[i];
+            int eval_U = 0;
+            for (int k = 0; k < numRoots; k++) {
+                eval_U = (mul_U[eval_U] ^ remainder[k * depth + lane]) & 0xff;
+            }
+            syndromes[i] = field.fieldMul((byte) eval_U, correction_U[i]);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * libcorrect4j
+ * FrameSynchronizer.java
+ */
+
+package libcorrect.sync;
+
+/**
+ * Finds frames in a continuous stream by their attached sync marker (ASM), e.g. the
+ * CCSDS 0x1ACFFC1D, at any bit offset and with either polarity.
+ * The stream is pushed in chunks of any size, either as packed hard decision bits
+ * (pushBits) or as soft symbols with 1 mapped to 255 and 0 to 0 (pushSoft), and every
+ * frame following a marker is handed to the listener, already inverted back if the
+ * stream is. Frames are delivered in a buffer owned by the synchronizer, so no memory is
+ * allocated per frame; it is laid out like the input of Convolutional.decode or
+ * decodeSoft and ReedSolomon.decode, and is only valid during the callback. Frame
+ * lengths are in bits, like the encoded lengths the decoders take, so a frame need not
+ * end on a byte boundary.
+ *
+ * While searching, every bit offset is tested against the marker. Once found, the
+ * synchronizer locks and only checks the marker where the next one is due. A marker
+ * that is missing there (more errors than the lock tolerance) moves to flywheel: frames
+ * are still delivered on the expected timing, until more than flywheelLimit markers in a
+ * row are missed and the search starts over.
+ */
+public class FrameSynchronizer {
+    public final static long CORRECT_SYNC_CCSDS_ASM = 0x1ACFFC1DL;
+    public final static int CORRECT_SYNC_CCSDS_ASM_BITS = 32;
+
+    public final static int CORRECT_SYNC_SEARCH = 0;
+    public final static int CORRECT_SYNC_LOCK = CORRECT_SYNC_SEARCH + 1;
+    public final static int CORRECT_SYNC_FLYWHEEL = CORRECT_SYNC_LOCK + 1;
+
+    // markers longer than this would not fit the search window next to a byte of offsets
+    public final static int MAX_ASM_BITS = 56;
+
+    private final static int MODE_NONE = 0;
+    private final static int MODE_HARD = 1;
+    private final static int MODE_SOFT = 2;
+
+    /**
+     * Receives the frames found in the stream
+     */
+    public interface FrameListener {
+        /**
+         * @param frame   the frame, packed bits for pushBits, a partial last byte filled up
+         *                with 0s, or one symbol per byte for pushSoft. The buffer is reused
+         *                for the next frame.
+         * @param length  number of valid bytes in frame
+         */
+        void onFrame(byte[] frame, int length);
+    }
+
+    private final long asm_U;
+    private final int asmBits;
+    private final long asmMask_U;
+    private final int frameBits;
+    private final FrameListener listener;
+
+    private int searchTolerance;
+    private int lockTolerance;
+    private int flywheelLimit;
+
+    private int mode = MODE_NONE;
+    private int state = CORRECT_SYNC_SEARCH;
+    private boolean inverted;
+    private int misses;
+    private int syncErrors;
+    private byte[] frame_U;
+    // bits or symbols of the current frame received so far
+    private int framePos;
+
+    // hard decisions: the last 64 bits seen while searching, and the bits not yet
+    //  consumed while locked, newest in the least significant position
+    private long window_U;
+    private int windowBits;
+    private long acc_U;
+    private int accBits;
+
+    // soft symbols: the last asmBits symbols, as a ring
+    private byte[] ring_U;
+    private int ringPos;
+    private int ringFill;
+
+    /**
+     * @param asm          the marker, most significant bit sent first
+     * @param asmBits      length of the marker in bits
+     * @param frameBits    length of the frame following every marker, in bits, which is
+     *                     also the number of soft symbols
+     * @param listener     receives the frames
+     * @throws IllegalArgumentException if the marker or frame length are out of range
+     */
+    public FrameSynchronizer(long asm, int asmBits, int frameBits, FrameListener listener) throws IllegalArgumentException {
+        if (asmBits < 1 || asmBits > MAX_ASM_BITS) {
+            throw new IllegalArgumentException("FrameSynchronizer: marker must have between 1 and 56 bits");
+        }
+        if (frameBits < 1) {
+            throw new IllegalArgumentException("FrameSynchronizer: frame length must be positive");
+        }
+        this.asmBits = asmBits;
+        this.asmMask_U = (1L << asmBits) - 1;
+        this.asm_U = asm & asmMask_U;
+        this.frameBits = frameBits;
+        this.listener = listener;
+        this.searchTolerance = asmBits / 16;
+        this.lockTolerance = asmBits / 8;
+        this.flywheelLimit = 3;
+    }
+
+    /**
+     * setSearchTolerance sets how many bits of the marker may be wrong while searching
+     */
+    public void setSearchTolerance(int searchTolerance) {
+        this.searchTolerance = searchTolerance;
+    }
+
+    /**
+     * setLockTolerance sets how many bits of the marker may be wrong where it is expected
+     * while locked
+     */
+    public void setLockTolerance(int lockTolerance) {
+        this.lockTolerance = lockTolerance;
+    }
+
+    /**
+     * setFlywheelLimit sets how many markers in a row may be missed before the lock is lost
+     */
+    public void setFlywheelLimit(int flywheelLimit) {
+        this.flywheelLimit = flywheelLimit;
+    }
+
+    /**
+     * @return CORRECT_SYNC_SEARCH, CORRECT_SYNC_LOCK or CORRECT_SYNC_FLYWHEEL
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return whether the stream is inverted, valid once a marker was found
+     */
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    /**
+     * @return number of wrong bits in the last marker checked
+     */
+    public int getSyncErrors() {
+        return syncErrors;
+    }
+
+    /**
+     * Forget the lock and everything pushed so far
+     */
+    public void reset() {
+        state = CORRECT_SYNC_SEARCH;
+        misses = 0;
+        windowBits = 0;
+        accBits = 0;
+        ringFill = 0;
+        framePos = 0;
+    }
+
+    private void setMode(int mode) {
+        if (this.mode != mode) {
+            if (this.mode != MODE_NONE) {
+                throw new IllegalStateException("FrameSynchronizer: hard and soft input cannot be mixed");
+            }
+            this.mode = mode;
+            if (mode == MODE_HARD) {
+                frame_U = new byte[(frameBits + 7) / 8];
+            } else {
+                frame_U = new byte[frameBits];
+                ring_U = new byte[asmBits];
+            }
+        }
+    }
+
+    private void deliver() {
+        listener.onFrame(frame_U, frame_U.length);
+    }
+
+    // called after every marker that was due, with whether it passed and its number of
+    //  wrong bits. returns false if the lock was lost
+    private boolean checkMarker(boolean found, int errors) {
+        syncErrors = errors;
+        if (found) {
+            state = CORRECT_SYNC_LOCK;
+            misses = 0;
+        } else if (++misses > flywheelLimit) {
+            state = CORRECT_SYNC_SEARCH;
+            return false;
+        } else {
+            state = CORRECT_SYNC_FLYWHEEL;
+        }
+        return true;
+    }
+
+    /**
+     * Push packed hard decision bits, most significant bit of every byte first
+     */
+    public void pushBits(byte[] data, int offset, int length) {
+        setMode(MODE_HARD);
+        for (int i = offset; i < offset + length; i++) {
+            int b_U = data[i] & 0xff;
+            if (state == CORRECT_SYNC_SEARCH) {
+                window_U = window_U << 8 | b_U;
+                windowBits = Math.min(Long.SIZE, windowBits + 8);
+                search(7);
+            } else {
+                acc_U = acc_U << 8 | b_U;
+                accBits += 8;
+                drainBits();
+            }
+        }
+    }
+
+    // test every marker position that ends at most maxOffset bits before the end of the
+    //  window, oldest first, with one xor and popcount per offset
+    private void search(int maxOffset) {
+        for (int k = Math.min(maxOffset, windowBits - asmBits); k >= 0; k--) {
+            long candidate_U = window_U >>> k & asmMask_U;
+            int errors = Long.bitCount(candidate_U ^ asm_U);
+            boolean invert = false;
+            if (errors > searchTolerance) {
+                errors = asmBits - errors;
+                invert = true;
+            }
+            if (errors <= searchTolerance) {
+                state = CORRECT_SYNC_LOCK;
+                inverted = invert;
+                syncErrors = errors;
+                misses = 0;
+                // the frame starts right after the marker
+                acc_U = window_U;
+                accBits = k;
+                framePos = 0;
+                drainBits();
+                return;
+            }
+        }
+    }
+
+    private void drainBits() {
+        int invertMask_U = inverted ? 0xff : 0;
+        for (;;) {
+            if (framePos < frameBits) {
+                // a byte at a time, only the last one of the frame may be partial
+                int n = Math.min(8, frameBits - framePos);
+                if (accBits < n) {
+                    return;
+                }
+                accBits -= n;
+                frame_U[framePos >>> 3] = (byte) (((acc_U >>> accBits) ^ invertMask_U) << 8 - n);
+                framePos += n;
+                if (framePos == frameBits) {
+                    deliver();
+                }
+            } else {
+                if (accBits < asmBits) {
+                    return;
+                }
+                accBits -= asmBits;
+                long candidate_U = acc_U >>> accBits & asmMask_U;
+                int errors = Long.bitCount(candidate_U ^ (inverted ? ~asm_U & asmMask_U : asm_U));
+                if (!checkMarker(errors <= lockTolerance, errors)) {
+                    // search again from the first bit of the missed marker
+                    window_U = acc_U;
+                    windowBits = accBits + asmBits;
+                    search(accBits);
+                    return;
+                }
+                framePos = 0;
+            }
+        }
+    }
+
+    /**
+     * Push soft symbols, 1 mapped to 255 and 0 to 0
+     */
+    public void pushSoft(byte[] symbols, int offset, int length) {
+        setMode(MODE_SOFT);
+        for (int i = offset; i < offset + length; i++) {
+            byte s_U = symbols[i];
+            if (state == CORRECT_SYNC_SEARCH) {
+                pushRing(s_U);
+                if (ringFill == asmBits) {
+                    int match = correlate(searchTolerance);
+                    if (match != 0) {
+                        state = CORRECT_SYNC_LOCK;
+                        inverted = match < 0;
+                        syncErrors = ringErrors();
+                        misses = 0;
+                        framePos = 0;
+                        ringFill = 0;
+                    }
+                }
+            } else if (framePos < frameBits) {
+                frame_U[framePos++] = inverted ? (byte) (255 - (s_U & 0xff)) : s_U;
+                if (framePos == frameBits) {
+                    deliver();
+                }
+            } else {
+                pushRing(s_U);
+                if (ringFill == asmBits) {
+                    framePos = 0;
+                    ringFill = 0;
+                    if (!checkMarker(correlate(lockTolerance) == (inverted ? -1 : 1), ringErrors())) {
+                        // the missed marker stays in the ring, the search goes on from there
+                        ringFill = asmBits;
+                    }
+                }
+            }
+        }
+    }
+
+    private void pushRing(byte s_U) {
+        ring_U[ringPos] = s_U;
+        if (++ringPos == asmBits) {
+            ringPos = 0;
+        }
+        if (ringFill < asmBits) {
+            ringFill++;
+        }
+    }
+
+    // correlation of the ring with the marker, every symbol counting +-1 weighted by its
+    //  confidence and normalized by the total confidence, so that a marker with tolerance
+    //  wrong bits of the same confidence as the others just passes.
+    //  returns 1 for the marker, -1 for the inverted marker and 0 for neither
+    private int correlate(int tolerance) {
+        int correlation = 0;
+        int energy = 0;
+        for (int i = 0; i < asmBits; i++) {
+            int s = 2 * (ring_U[(ringPos + i) % asmBits] & 0xff) - 255;
+            energy += Math.abs(s);
+            correlation += (asm_U >>> (asmBits - 1 - i) & 1) != 0 ? s : -s;
+        }
+        long threshold = (long) (asmBits - 2 * tolerance) * energy;
+        if ((long) correlation * asmBits >= threshold) {
+            return 1;
+        }
+        if (-(long) correlation * asmBits >= threshold) {
+            return -1;
+        }
+        return 0;
+    }
+
+    // hard decision errors of the ring against the marker in the locked polarity
+    private int ringErrors() {
+        int errors = 0;
+        for (int i = 0; i < asmBits; i++) {
+            int bit = (ring_U[(ringPos + i) % asmBits] & 0xff) > 127 ? 1 : 0;
+            errors += bit ^ (int) (asm_U >>> (asmBits - 1 - i) & 1) ^ (inverted ? 1 : 0);
+        }
+        return errors;
+    }
+}
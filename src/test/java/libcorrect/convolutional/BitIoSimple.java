@@ -0,0 +1,167 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BitIoSimple {
+    private final static Random RANDOM = new Random(1);
+
+    // reference: one bit per byte, packed msb first
+    private static byte[] pack(byte[] bits, int numBits) {
+        byte[] packed = new byte[(numBits + 7) / 8];
+        for (int i = 0; i < numBits; i++) {
+            packed[i / 8] |= (byte) (bits[i] << (7 - i % 8));
+        }
+        return packed;
+    }
+
+    @Test
+    void mixedWritesMatchReference() {
+        byte[] reference = new byte[20000];
+        int numBits = 0;
+        byte[] out = new byte[reference.length / 8 + 1];
+        BitWriter writer = new BitWriter(out, out.length);
+        while (numBits < reference.length - 200) {
+            switch (RANDOM.nextInt(5)) {
+                case 0: {
+                    int n = 1 + RANDOM.nextInt(BitWriter.MAX_BITS);
+                    long val = RANDOM.nextLong();
+                    writer.writeBits(val, n);
+                    for (int j = n - 1; j >= 0; j--) {
+                        reference[numBits++] = (byte) (val >>> j & 1);
+                    }
+                    break;
+                }
+                case 1: {
+                    int n = 1 + RANDOM.nextInt(8);
+                    byte val = (byte) RANDOM.nextInt();
+                    writer.write(val, n);
+                    for (int j = 0; j < n; j++) {
+                        reference[numBits++] = (byte) (val >>> j & 1);
+                    }
+                    break;
+                }
+                case 2: {
+                    byte val = (byte) RANDOM.nextInt(2);
+                    writer.write1(val);
+                    reference[numBits++] = val;
+                    break;
+                }
+                case 3: {
+                    byte[] list = new byte[RANDOM.nextInt(150)];
+                    for (int j = 0; j < list.length; j++) {
+                        list[j] = (byte) RANDOM.nextInt(2);
+                    }
+                    writer.writeBitlist(list, list.length);
+                    System.arraycopy(list, 0, reference, numBits, list.length);
+                    numBits += list.length;
+                    break;
+                }
+                default: {
+                    byte[] list = new byte[RANDOM.nextInt(150)];
+                    for (int j = 0; j < list.length; j++) {
+                        list[j] = (byte) RANDOM.nextInt(2);
+                    }
+                    writer.writeBitlistReversed(list, list.length);
+                    for (int j = list.length - 1; j >= 0; j--) {
+                        reference[numBits++] = list[j];
+                    }
+                    break;
+                }
+            }
+        }
+        assert writer.length() == numBits / 8;
+        writer.flushByte();
+        assert writer.length() == (numBits + 7) / 8;
+        assert Arrays.equals(pack(reference, numBits), Arrays.copyOf(out, (numBits + 7) / 8));
+    }
+
+    @Test
+    void readerMatchesWriter() {
+        byte[] packed = new byte[1000];
+        RANDOM.nextBytes(packed);
+        BitReader bits = new BitReader(packed, packed.length);
+        BitReader bytes = new BitReader(packed, packed.length);
+        for (int i = 0; i < packed.length; i++) {
+            assert (byte) bits.readBits(8) == packed[i];
+        }
+        // read(n) returns the first bit in the least significant position
+        for (int i = 0; i < packed.length; i++) {
+            int lo = Byte.toUnsignedInt(bytes.read(3));
+            int hi = Byte.toUnsignedInt(bytes.read(5));
+            int b = Byte.toUnsignedInt(packed[i]);
+            assert lo == Integer.reverse(b >>> 5) >>> 29;
+            assert hi == Integer.reverse(b & 0x1f) >>> 27;
+        }
+    }
+
+    @Test
+    void readSymbolsMatchesRead() {
+        byte[] packed = new byte[333];
+        RANDOM.nextBytes(packed);
+        for (int rate = 2; rate <= 8; rate++) {
+            int count = packed.length * 8 / rate;
+            int[] symbols = new int[count];
+            new BitReader(packed, packed.length).readSymbols(symbols, count, rate);
+            BitReader reader = new BitReader(packed, packed.length);
+            for (int i = 0; i < count; i++) {
+                assert symbols[i] == Byte.toUnsignedInt(reader.read(rate));
+            }
+        }
+    }
+
+    @Test
+    void byteBuffers() {
+        byte[] packed = new byte[257];
+        RANDOM.nextBytes(packed);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(300), ByteBuffer.allocateDirect(300)}) {
+            buffer.position(5);
+            BitWriter writer = new BitWriter(buffer, packed.length);
+            BitReader source = new BitReader(packed, packed.length);
+            for (int i = 0; i < packed.length * 8; ) {
+                int n = Math.min(1 + RANDOM.nextInt(BitWriter.MAX_BITS), packed.length * 8 - i);
+                writer.writeBits(source.readBits(n), n);
+                i += n;
+            }
+            writer.flushByte();
+            assert buffer.position() == 5;
+
+            BitReader reader = new BitReader(buffer, packed.length);
+            for (byte b : packed) {
+                assert (byte) reader.readBits(8) == b;
+            }
+        }
+    }
+
+    @Test
+    void bytesPastTheWrittenOnesKeepTheirContents() {
+        for (int trial = 0; trial < 200; trial++) {
+            byte[] array = new byte[64];
+            Arrays.fill(array, (byte) 0x5a);
+            ByteBuffer buffer = ByteBuffer.allocate(70);
+            buffer.put(new byte[70]).position(3);
+            for (int i = 3; i < 70; i++) {
+                buffer.put(i, (byte) 0x5a);
+            }
+            BitWriter arrayWriter = new BitWriter(array, array.length);
+            BitWriter bufferWriter = new BitWriter(buffer, 64);
+            int numBits = RANDOM.nextInt(400);
+            for (int i = 0; i < numBits; ) {
+                int n = Math.min(1 + RANDOM.nextInt(BitWriter.MAX_BITS), numBits - i);
+                long val = RANDOM.nextLong();
+                arrayWriter.writeBits(val, n);
+                bufferWriter.writeBits(val, n);
+                i += n;
+            }
+            assert arrayWriter.length() == numBits / 8;
+            assert bufferWriter.length() == numBits / 8;
+            for (int i = numBits / 8; i < 64; i++) {
+                assert array[i] == 0x5a;
+                assert buffer.get(3 + i) == 0x5a;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.correctConvR127Polynomial;
+import static libcorrect.convolutional.Convolutional.correctConvR139Polynomial;
+
+public class BitSlicedDecoderSimple {
+    private final static Random RANDOM = new Random(1);
+
+    private static byte[][] encodeFrames(Convolutional conv, byte[][] msgs, double bitErrorRate) {
+        byte[][] encoded = new byte[msgs.length][];
+        long enclen = conv.encodeLen(msgs[0].length);
+        for (int f = 0; f < msgs.length; f++) {
+            encoded[f] = conv.encode(msgs[f]);
+            for (int i = 0; i < enclen; i++) {
+                if (RANDOM.nextDouble() < bitErrorRate) {
+                    encoded[f][i / 8] ^= (byte) (0x80 >>> (i % 8));
+                }
+            }
+        }
+        return encoded;
+    }
+
+    private static byte[][] randomFrames(int count, int len) {
+        byte[][] msgs = new byte[count][len];
+        for (byte[] msg : msgs) {
+            RANDOM.nextBytes(msg);
+        }
+        return msgs;
+    }
+
+    @Test
+    void bitSlicedPassThrough() {
+        // more frames than lanes, so the second batch is only partly filled
+        byte[][] msgs = randomFrames(100, 64);
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        BitSlicedDecoder decoder = new BitSlicedDecoder(2, 7, correctConvR127Polynomial);
+        byte[][] decoded = decoder.decode(encodeFrames(conv, msgs, 0.0), conv.encodeLen(64));
+        for (int f = 0; f < msgs.length; f++) {
+            assert Arrays.equals(msgs[f], decoded[f]);
+        }
+    }
+
+    @Test
+    void bitSlicedMatchesViterbi() {
+        byte[][] msgs = randomFrames(64, 40);
+        Convolutional conv = new Convolutional(3, 9, correctConvR139Polynomial);
+        BitSlicedDecoder decoder = new BitSlicedDecoder(3, 9, correctConvR139Polynomial);
+        long enclen = conv.encodeLen(40);
+        byte[][] encoded = encodeFrames(conv, msgs, 0.03);
+        byte[][] decoded = decoder.decode(encoded, enclen);
+        for (int f = 0; f < msgs.length; f++) {
+            assert Arrays.equals(msgs[f], decoded[f]);
+            assert Arrays.equals(conv.decode(encoded[f], enclen), decoded[f]);
+        }
+    }
+
+    @Test
+    void bitSlicedCorrectsErrors() {
+        byte[][] msgs = randomFrames(128, 32);
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        BitSlicedDecoder decoder = new BitSlicedDecoder(2, 7, correctConvR127Polynomial);
+        long enclen = conv.encodeLen(32);
+        byte[][] encoded = encodeFrames(conv, msgs, 0.02);
+        byte[][] decoded = decoder.decode(encoded, enclen);
+        int wrong = 0;
+        for (int f = 0; f < msgs.length; f++) {
+            if (!Arrays.equals(msgs[f], decoded[f])) {
+                wrong++;
+            }
+        }
+        assert wrong <= 2;
+    }
+
+    @Test
+    void bitSlicedRejectsShortFrames() {
+        BitSlicedDecoder decoder = new BitSlicedDecoder(2, 7, correctConvR127Polynomial);
+        boolean thrown = false;
+        try {
+            decoder.decode(new byte[][]{new byte[10], new byte[4]}, 80);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+}
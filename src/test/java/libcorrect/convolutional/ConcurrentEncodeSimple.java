@@ -0,0 +1,47 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static libcorrect.convolutional.Convolutional.correctConvR127Polynomial;
+
+public class ConcurrentEncodeSimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void sharedInstanceEncodesConcurrently() throws Exception {
+        Convolutional shared = new Convolutional(2, 7, correctConvR127Polynomial);
+        Convolutional reference = new Convolutional(2, 7, correctConvR127Polynomial);
+        byte[][] msgs = new byte[512][];
+        byte[][] expected = new byte[msgs.length][];
+        for (int i = 0; i < msgs.length; i++) {
+            msgs[i] = new byte[1 + RANDOM.nextInt(300)];
+            RANDOM.nextBytes(msgs[i]);
+            expected[i] = reference.encode(msgs[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (byte[] msg : msgs) {
+                results.add(executor.submit(() -> shared.encode(msg)));
+            }
+            // the same instance keeps decoding meanwhile
+            for (int i = 0; i < 32; i++) {
+                assert Arrays.equals(msgs[i], shared.decode(expected[i], shared.encodeLen(msgs[i].length)));
+            }
+            for (int i = 0; i < msgs.length; i++) {
+                assert Arrays.equals(expected[i], results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
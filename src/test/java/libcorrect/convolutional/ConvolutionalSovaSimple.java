@@ -0,0 +1,85 @@
+package libcorrect.convolutional;
+
+import libcorrect.reed_solomon.ReedSolomon;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.correctConvR127Polynomial;
+import static libcorrect.reed_solomon.ReedSolomon.correctRsPrimitivePolynomialCcsds;
+
+public class ConvolutionalSovaSimple {
+    private final static Random RANDOM = new Random(1);
+
+    private static byte[] toSoft(byte[] encoded, long enclen) {
+        byte[] soft = new byte[(int) enclen];
+        ErrorSim.byte2bit(encoded, soft, enclen);
+        return soft;
+    }
+
+    @Test
+    void sovaMatchesHardOutput() {
+        byte[] msgIn = new byte[512];
+        RANDOM.nextBytes(msgIn);
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        long enclen = conv.encodeLen(msgIn.length);
+        byte[] soft = toSoft(conv.encode(msgIn), enclen);
+        for (int i = 0; i < soft.length; i++) {
+            int noisy = Byte.toUnsignedInt(soft[i]) + RANDOM.nextInt(161) - 80;
+            soft[i] = (byte) Math.max(0, Math.min(255, noisy));
+        }
+
+        byte[] hardOut = conv.decodeSoft(soft, enclen);
+        short[] reliabilities = new short[(int) (enclen / 2)];
+        byte[] sovaOut = conv.decodeSoftSova(soft, enclen, reliabilities);
+        assert Arrays.equals(hardOut, sovaOut);
+        // and the plain decoder is not affected by a previous soft output run
+        assert Arrays.equals(hardOut, conv.decodeSoft(soft, enclen));
+    }
+
+    @Test
+    void sovaFlagsCorruptedBytes() {
+        byte[] msgIn = new byte[64];
+        RANDOM.nextBytes(msgIn);
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        long enclen = conv.encodeLen(msgIn.length);
+        byte[] soft = toSoft(conv.encode(msgIn), enclen);
+
+        // wipe out a burst inside byte 20 of the message, it still decodes but should look shaky
+        for (int i = 2 * 8 * 20; i < 2 * 8 * 20 + 6; i++) {
+            soft[i] = (byte) 128;
+        }
+
+        short[] reliabilities = new short[(int) (enclen / 2)];
+        byte[] msgOut = conv.decodeSoftSova(soft, enclen, reliabilities);
+        assert Arrays.equals(msgIn, msgOut);
+
+        byte[] erasures = Convolutional.erasureLocations(reliabilities, 0, msgIn.length, 1500, 4);
+        assert erasures.length > 0 && erasures.length <= 4;
+        for (byte e : erasures) {
+            assert e >= 19 && e <= 22;
+        }
+    }
+
+    @Test
+    void sovaErasuresFeedReedSolomon() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 16);
+        byte[] payload = new byte[100];
+        RANDOM.nextBytes(payload);
+        byte[] block = rs.encode(payload);
+
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        long enclen = conv.encodeLen(block.length);
+        byte[] soft = toSoft(conv.encode(block), enclen);
+        // a long fade the convolutional code cannot bridge
+        for (int i = 2 * 8 * 40; i < 2 * 8 * 52; i++) {
+            soft[i] = (byte) (255 - Byte.toUnsignedInt(soft[i]));
+        }
+
+        short[] reliabilities = new short[(int) (enclen / 2)];
+        byte[] decoded = conv.decodeSoftSova(soft, enclen, reliabilities);
+        byte[] erasures = Convolutional.erasureLocations(reliabilities, 0, block.length, 1000, 16);
+        assert Arrays.equals(payload, rs.decodeWithErasures(decoded, erasures));
+    }
+}
@@ -0,0 +1,69 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.*;
+
+public class DecoderBankSimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void switchesCodesPerFrame() {
+        Convolutional[] codes = {
+                new Convolutional(2, 7, correctConvR127Polynomial),
+                new Convolutional(3, 7, correctConvR137Polynomial),
+                new Convolutional(2, 9, correctConvR129Polynomial),
+                new Convolutional(3, 6, correctConvR136Polynomial),
+        };
+        DecoderBank bank = new DecoderBank(codes);
+        assert bank.size() == codes.length;
+        for (int frame = 0; frame < 40; frame++) {
+            int id = RANDOM.nextInt(codes.length);
+            byte[] msg = new byte[1 + RANDOM.nextInt(300)];
+            RANDOM.nextBytes(msg);
+            byte[] encoded = codes[id].encode(msg);
+            long enclen = codes[id].encodeLen(msg.length);
+            // a couple of bit errors, well within what every code corrects
+            encoded[encoded.length / 3] ^= 0x04;
+            encoded[2 * encoded.length / 3] ^= 0x20;
+
+            byte[] expected = codes[id].decode(encoded, enclen);
+            assert Arrays.equals(msg, expected);
+            if (frame % 2 == 0) {
+                assert Arrays.equals(expected, bank.decode(id, encoded, enclen));
+            } else {
+                byte[] soft = new byte[(int) enclen];
+                ErrorSim.byte2bit(encoded, soft, enclen);
+                assert Arrays.equals(codes[id].decodeSoft(soft, enclen), bank.decodeSoft(id, soft, enclen));
+            }
+        }
+    }
+
+    @Test
+    void bankKeepsSurvivorManagement() {
+        Convolutional exchange = new Convolutional(2, 7, correctConvR127Polynomial);
+        exchange.setSurvivorManagement(CORRECT_SURVIVOR_REGISTER_EXCHANGE);
+        DecoderBank bank = new DecoderBank(exchange, new Convolutional(2, 9, correctConvR129Polynomial));
+        byte[] msg = new byte[200];
+        RANDOM.nextBytes(msg);
+        assert Arrays.equals(msg, bank.decode(0, exchange.encode(msg), exchange.encodeLen(msg.length)));
+        assert Arrays.equals(msg, bank.decode(1, bank.getCode(1).encode(msg), bank.getCode(1).encodeLen(msg.length)));
+        assert Arrays.equals(msg, bank.decode(0, exchange.encode(msg), exchange.encodeLen(msg.length)));
+    }
+
+    @Test
+    void historyBufferRejectsLargerCode() {
+        HistoryBuffer buffer = new HistoryBuffer(35, 105, 128, 64, 64);
+        buffer.reconfigure(30, 90, 128, 32, 32);
+        boolean thrown = false;
+        try {
+            buffer.reconfigure(45, 135, 128, 256, 256);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+}
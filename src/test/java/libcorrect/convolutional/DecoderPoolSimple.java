@@ -0,0 +1,100 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static libcorrect.convolutional.Convolutional.correctConvR129Polynomial;
+
+public class DecoderPoolSimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void pooledDecodesConcurrently() throws Exception {
+        Convolutional code = new Convolutional(2, 9, correctConvR129Polynomial);
+        DecoderPool pool = new DecoderPool(code, 8);
+        pool.prewarm(8);
+        assert pool.size() == 8;
+
+        byte[][] msgs = new byte[256][];
+        byte[][] encoded = new byte[msgs.length][];
+        for (int i = 0; i < msgs.length; i++) {
+            msgs[i] = new byte[1 + RANDOM.nextInt(200)];
+            RANDOM.nextBytes(msgs[i]);
+            encoded[i] = code.encode(msgs[i]);
+            encoded[i][0] ^= 0x10;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < msgs.length; i++) {
+                int index = i;
+                results.add(executor.submit(() -> pool.decode(encoded[index], code.encodeLen(msgs[index].length))));
+            }
+            for (int i = 0; i < msgs.length; i++) {
+                assert Arrays.equals(msgs[i], results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assert pool.size() <= 8;
+    }
+
+    @Test
+    void threadGetsItsDecoderBack() {
+        DecoderPool pool = new DecoderPool(new Convolutional(2, 9, correctConvR129Polynomial), 2, true);
+        Convolutional first = pool.acquire();
+        pool.release(first);
+        assert pool.acquire() == first;
+
+        // the per thread slot is taken, so these two go to the shared queue and the third is dropped
+        Convolutional a = pool.acquire();
+        Convolutional b = pool.acquire();
+        Convolutional c = pool.acquire();
+        pool.release(first);
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        assert pool.size() == 2;
+    }
+
+    @Test
+    void idleDecodersBoundedWithoutThreadCache() {
+        DecoderPool pool = new DecoderPool(new Convolutional(2, 9, correctConvR129Polynomial), 2);
+        Convolutional a = pool.acquire();
+        Convolutional b = pool.acquire();
+        Convolutional c = pool.acquire();
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        // every idle decoder is on the shared queue, c was dropped
+        assert pool.size() == 2;
+        assert pool.acquire() == a;
+        assert pool.acquire() == b;
+        assert pool.size() == 0;
+
+        DecoderPool empty = new DecoderPool(new Convolutional(2, 9, correctConvR129Polynomial), 0);
+        Convolutional d = empty.acquire();
+        empty.release(d);
+        assert empty.size() == 0;
+        assert empty.acquire() != d;
+    }
+
+    @Test
+    void rejectsNegativeSize() {
+        boolean thrown = false;
+        try {
+            new DecoderPool(new Convolutional(2, 9, correctConvR129Polynomial), -1);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+}
@@ -0,0 +1,70 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.correctConvR127Polynomial;
+import static libcorrect.convolutional.Convolutional.correctConvR129Polynomial;
+
+public class LowLatencySimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void lowLatencySameOutput() {
+        byte[] msgIn = new byte[1024];
+        RANDOM.nextBytes(msgIn);
+        Convolutional conv = new Convolutional(2, 9, correctConvR129Polynomial);
+        Convolutional fast = new Convolutional(2, 9, correctConvR129Polynomial);
+        fast.setLowLatency(true);
+        long enclen = conv.encodeLen(msgIn.length);
+        byte[] encoded = conv.encode(msgIn);
+
+        assert Arrays.equals(msgIn, fast.decode(encoded, enclen));
+
+        // sprinkle some errors, both decoders must still agree
+        for (int i = 0; i < 40; i++) {
+            int bit = RANDOM.nextInt((int) enclen);
+            encoded[bit / 8] ^= (byte) (0x80 >>> (bit % 8));
+        }
+        assert Arrays.equals(conv.decode(encoded, enclen), fast.decode(encoded, enclen));
+    }
+
+    @Test
+    void mergedPathsAreReleasedEarly() {
+        // order 7: 64 states, every survivor comes from the low predecessor,
+        // so all paths merge into state 0 after 6 slices
+        int order = 7;
+        int numStates = 1 << (order - 1);
+        HistoryBuffer regular = new HistoryBuffer(5 * order, 15 * order, 1_000_000, numStates, 1 << (order - 1));
+        HistoryBuffer early = new HistoryBuffer(5 * order, 15 * order, 1_000_000, numStates, 1 << (order - 1));
+        early.setMergeCheckInterval(order);
+
+        short[] distances = new short[numStates];
+        for (int i = 0; i < numStates; i++) {
+            distances[i] = (short) (i == 0 ? 0 : 10 + i);
+        }
+        BitWriter regularOut = new BitWriter(new byte[1024], 1024);
+        BitWriter earlyOut = new BitWriter(new byte[1024], 1024);
+        int maxPendingEarly = 0;
+        for (int step = 0; step < 1000; step++) {
+            Arrays.fill(regular.getSlice(), (byte) 0);
+            Arrays.fill(early.getSlice(), (byte) 0);
+            regular.process(distances, regularOut);
+            early.process(distances, earlyOut);
+            maxPendingEarly = Math.max(maxPendingEarly, early.pending());
+        }
+        assert regular.pending() >= 5 * order;
+        assert maxPendingEarly <= 2 * order;
+    }
+
+    @Test
+    void lowLatencyShortFrame() {
+        byte[] msgIn = "abcdef".getBytes();
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        conv.setLowLatency(true);
+        long enclen = conv.encodeLen(msgIn.length);
+        assert Arrays.equals(msgIn, conv.decode(conv.encode(msgIn), enclen));
+    }
+}
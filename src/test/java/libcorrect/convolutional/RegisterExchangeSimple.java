@@ -0,0 +1,58 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.*;
+
+public class RegisterExchangeSimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void registerExchangePassThrough() {
+        byte[] msgIn = new byte[777];
+        RANDOM.nextBytes(msgIn);
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        conv.setSurvivorManagement(CORRECT_SURVIVOR_REGISTER_EXCHANGE);
+        long enclen = conv.encodeLen(msgIn.length);
+        byte[] encoded = conv.encode(msgIn);
+        assert Arrays.equals(msgIn, conv.decode(encoded, enclen));
+
+        byte[] soft = new byte[(int) enclen];
+        ErrorSim.byte2bit(encoded, soft, enclen);
+        assert Arrays.equals(msgIn, conv.decodeSoft(soft, enclen));
+    }
+
+    @Test
+    void registerExchangeWithCorrection() {
+        byte[] msgIn = "abcdef".getBytes();
+        Convolutional conv = new Convolutional(3, 6, correctConvR136Polynomial);
+        conv.setSurvivorManagement(CORRECT_SURVIVOR_REGISTER_EXCHANGE);
+        long enclen = conv.encodeLen(msgIn.length);
+        byte[] encoded = conv.encode(msgIn);
+        encoded[3] = (byte) (encoded[3] + 1);
+        assert Arrays.equals(msgIn, conv.decode(encoded, enclen));
+    }
+
+    @Test
+    void registerExchangeNoisy() {
+        ConvTestbench tb = new ConvTestbench();
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        conv.setSurvivorManagement(CORRECT_SURVIVOR_REGISTER_EXCHANGE);
+        assert tb.assertTestResult(conv, 1_000_000, 2, 7, 4.5, 1e-05);
+    }
+
+    @Test
+    void registerExchangeOrderLimit() {
+        Convolutional conv = new Convolutional(2, 13, new short[]{017661, 012767});
+        boolean thrown = false;
+        try {
+            conv.setSurvivorManagement(CORRECT_SURVIVOR_REGISTER_EXCHANGE);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+}
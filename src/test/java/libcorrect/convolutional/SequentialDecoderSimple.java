@@ -0,0 +1,120 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.correctConvR127Polynomial;
+import static libcorrect.convolutional.SequentialDecoder.correctConvR1232Polynomial;
+
+public class SequentialDecoderSimple {
+    private final static Random RANDOM = new Random(1);
+
+    private static byte[] noisySoft(byte[] encoded, long enclen, double ebN0, int rate) {
+        double sigma = Math.sqrt(rate / (2.0 * ErrorSim.log2amp(ebN0)));
+        byte[] soft = new byte[(int) enclen];
+        for (int i = 0; i < enclen; i++) {
+            double v = ((encoded[i / 8] << (i % 8) & 0x80) != 0 ? 1.0 : -1.0) + sigma * RANDOM.nextGaussian();
+            soft[i] = (byte) (127.5 + 127.5 * Math.max(-1.0, Math.min(1.0, v)));
+        }
+        return soft;
+    }
+
+    @Test
+    void sameFramingAsViterbi() {
+        byte[] msgIn = new byte[100];
+        RANDOM.nextBytes(msgIn);
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        SequentialDecoder seq = new SequentialDecoder(2, 7, correctConvR127Polynomial);
+        long enclen = conv.encodeLen(msgIn.length);
+        assert enclen == seq.encodeLen(msgIn.length);
+        byte[] encoded = conv.encode(msgIn);
+        assert Arrays.equals(encoded, seq.encode(msgIn));
+        assert Arrays.equals(msgIn, seq.decode(encoded, enclen));
+    }
+
+    @Test
+    void longConstraintPassThrough() {
+        byte[] msgIn = new byte[512];
+        RANDOM.nextBytes(msgIn);
+        SequentialDecoder seq = new SequentialDecoder(2, 32, correctConvR1232Polynomial);
+        long enclen = seq.encodeLen(msgIn.length);
+        byte[] encoded = seq.encode(msgIn);
+        assert Arrays.equals(msgIn, seq.decode(encoded, enclen));
+        // a clean frame goes straight through the tree
+        assert seq.getCycles() == enclen / 2;
+
+        byte[] soft = new byte[(int) enclen];
+        ErrorSim.byte2bit(encoded, soft, enclen);
+        assert Arrays.equals(msgIn, seq.decodeSoft(soft, enclen));
+    }
+
+    @Test
+    void longConstraintNoisy() {
+        SequentialDecoder seq = new SequentialDecoder(2, 32, correctConvR1232Polynomial);
+        seq.setChannel(3.5);
+        for (int frame = 0; frame < 20; frame++) {
+            byte[] msgIn = new byte[128];
+            RANDOM.nextBytes(msgIn);
+            long enclen = seq.encodeLen(msgIn.length);
+            byte[] soft = noisySoft(seq.encode(msgIn), enclen, 3.5, 2);
+            assert Arrays.equals(msgIn, seq.decodeSoft(soft, enclen));
+        }
+    }
+
+    @Test
+    void budgetExhaustion() {
+        byte[] msgIn = new byte[128];
+        RANDOM.nextBytes(msgIn);
+        SequentialDecoder seq = new SequentialDecoder(2, 32, correctConvR1232Polynomial);
+        seq.setComputationBudget(2);
+        long enclen = seq.encodeLen(msgIn.length);
+        // far too noisy to finish within two cycles per bit
+        byte[] soft = noisySoft(seq.encode(msgIn), enclen, 0.0, 2);
+        assert seq.decodeSoft(soft, enclen) == null;
+        assert seq.getCycles() > 2 * enclen / 2;
+    }
+
+    @Test
+    void rejectsBadFraming() {
+        SequentialDecoder seq = new SequentialDecoder(2, 32, correctConvR1232Polynomial);
+        boolean thrown = false;
+        try {
+            seq.decode(new byte[16], 127);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+
+        // buffers shorter than numEncodedBits
+        thrown = false;
+        try {
+            seq.decodeSoft(new byte[100], 200);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+        thrown = false;
+        try {
+            seq.decode(new byte[16], 200);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+
+    @Test
+    void rejectsEmptyBudget() {
+        SequentialDecoder seq = new SequentialDecoder(2, 32, correctConvR1232Polynomial);
+        for (int budget : new int[]{0, -5}) {
+            boolean thrown = false;
+            try {
+                seq.setComputationBudget(budget);
+            } catch (IllegalArgumentException e) {
+                thrown = true;
+            }
+            assert thrown;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package libcorrect.convolutional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.convolutional.Convolutional.correctConvR127Polynomial;
+import static libcorrect.convolutional.Convolutional.correctConvR137Polynomial;
+
+public class SynchronizerSimple {
+    private final static Random RANDOM = new Random(1);
+
+    // the encoded stream, joined late (offset symbols of the previous frame) and maybe inverted
+    private static byte[] stream(Convolutional conv, byte[] msg, int offset, boolean inverted, double ebN0) {
+        byte[] encoded = conv.encode(msg);
+        long enclen = conv.encodeLen(msg.length);
+        double sigma = Math.sqrt(conv.getRate() / (2.0 * ErrorSim.log2amp(ebN0)));
+        byte[] soft = new byte[(int) enclen + offset];
+        for (int i = 0; i < soft.length; i++) {
+            int bit = i < offset ? RANDOM.nextInt(2) : (encoded[(i - offset) / 8] << ((i - offset) % 8) & 0x80) >>> 7;
+            double v = ((bit ^ (inverted ? 1 : 0)) != 0 ? 1.0 : -1.0) + sigma * RANDOM.nextGaussian();
+            soft[i] = (byte) (127.5 + 127.5 * Math.max(-1.0, Math.min(1.0, v)));
+        }
+        return soft;
+    }
+
+    @Test
+    void findsOffsetAndPhase() {
+        Convolutional conv = new Convolutional(3, 7, correctConvR137Polynomial);
+        Synchronizer sync = new Synchronizer(conv);
+        for (int offset = 0; offset < 3; offset++) {
+            for (boolean inverted : new boolean[]{false, true}) {
+                byte[] msg = new byte[200];
+                RANDOM.nextBytes(msg);
+                byte[] soft = stream(conv, msg, offset, inverted, 3.0);
+                Synchronizer.Hypothesis locked = sync.acquireSoft(soft, soft.length);
+                assert locked.getOffset() == offset;
+                assert locked.isInverted() == inverted;
+            }
+        }
+    }
+
+    @Test
+    void lockedHypothesisDecodes() {
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        byte[] msg = new byte[256];
+        RANDOM.nextBytes(msg);
+        byte[] encoded = conv.encode(msg);
+        long enclen = conv.encodeLen(msg.length);
+        // hard decisions, inverted and starting one symbol late
+        byte[] shifted = new byte[encoded.length + 1];
+        for (int i = 0; i < enclen; i++) {
+            if ((encoded[i / 8] << (i % 8) & 0x80) == 0) {
+                shifted[(i + 1) / 8] |= (byte) (0x80 >>> ((i + 1) % 8));
+            }
+        }
+        Synchronizer.Hypothesis locked = new Synchronizer(conv).acquire(shifted, enclen + 1);
+        assert locked.getOffset() == 1 && locked.isInverted();
+        assert locked.getMetricRate() == 0.0;
+        assert Arrays.equals(msg, locked.getDecoded());
+    }
+
+    @Test
+    void rejectsBitCountsBeyondTheBuffer() {
+        Synchronizer sync = new Synchronizer(new Convolutional(2, 7, correctConvR127Polynomial));
+        byte[] encoded = new byte[64];
+        for (long numEncodedBits : new long[]{-1, 8 * 64 + 1}) {
+            boolean thrown = false;
+            try {
+                sync.acquire(encoded, numEncodedBits);
+            } catch (IllegalArgumentException e) {
+                thrown = true;
+            }
+            assert thrown;
+        }
+    }
+
+    @Test
+    void copiedCodeDecodesIndependently() {
+        Convolutional conv = new Convolutional(2, 7, correctConvR127Polynomial);
+        Convolutional copy = new Convolutional(conv);
+        byte[] msg = "synchronize".getBytes();
+        long enclen = conv.encodeLen(msg.length);
+        assert Arrays.equals(conv.encode(msg), copy.encode(msg));
+        assert Arrays.equals(msg, copy.decode(conv.encode(msg), enclen));
+    }
+}
@@ -0,0 +1,57 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class BatchDecoderSimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void decodesShortenedBlocksWithStride() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 16);
+        int count = 1000;
+        int msgLength = 84;
+        int encodedLength = msgLength + 16;
+        int stride = 128;
+        byte[] messages = new byte[count * msgLength];
+        RANDOM.nextBytes(messages);
+        byte[] encoded = new byte[count * stride];
+        int[] errors = new int[count];
+        for (int i = 0; i < count; i++) {
+            byte[] block = rs.encode(Arrays.copyOfRange(messages, i * msgLength, (i + 1) * msgLength));
+            // every 10th block gets more errors than the code can correct
+            errors[i] = i % 10 == 9 ? 12 : RANDOM.nextInt(9);
+            for (int e = 0; e < errors[i]; e++) {
+                block[(e * 7 + i) % encodedLength] ^= 1 + RANDOM.nextInt(255);
+            }
+            System.arraycopy(block, 0, encoded, i * stride, encodedLength);
+        }
+
+        byte[] decoded = new byte[count * msgLength];
+        int[] corrected = new int[count];
+        int failed = new BatchDecoder(rs.getCode(), new ForkJoinPool(4)).decode(encoded, count, encodedLength, stride, decoded, corrected);
+
+        int expectFailed = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] serial = rs.decode(Arrays.copyOfRange(encoded, i * stride, i * stride + encodedLength));
+            if (errors[i] <= 8) {
+                assert corrected[i] == errors[i];
+                assert Arrays.equals(Arrays.copyOfRange(decoded, i * msgLength, (i + 1) * msgLength),
+                        Arrays.copyOfRange(messages, i * msgLength, (i + 1) * msgLength));
+            }
+            if (serial == null) {
+                assert corrected[i] == -1;
+                expectFailed++;
+            } else {
+                assert Arrays.equals(Arrays.copyOfRange(decoded, i * msgLength, (i + 1) * msgLength), serial);
+            }
+        }
+        assert failed == expectFailed;
+        assert failed > 0;
+    }
+}
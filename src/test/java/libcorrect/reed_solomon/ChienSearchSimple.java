@@ -0,0 +1,94 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class ChienSearchSimple {
+    private final static Random RANDOM = new Random(23);
+
+    private static final ReedSolomonCode CODE = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 112,
+            (byte) 11, 32, Field.CORRECT_FIELD_LOG_EXP);
+
+    // writes the logs of the locator with errors at the given degrees, product of
+    // (1 + alpha^(gap * d) x), to ws.errorLocatorLog
+    private static void setLocator(RsWorkspace ws, int... degrees) {
+        Field field = CODE.getField();
+        byte[] locator = new byte[degrees.length + 1];
+        locator[0] = 1;
+        for (int k = 0; k < degrees.length; k++) {
+            byte x = field.exp(11 * degrees[k] % 255);
+            for (int j = k + 1; j > 0; j--) {
+                locator[j] ^= field.fieldMul(x, locator[j - 1]);
+            }
+        }
+        for (int j = 0; j <= degrees.length; j++) {
+            ws.errorLocatorLog.setCoeff(j, field.log(Byte.toUnsignedInt(locator[j])));
+        }
+        ws.errorLocatorLog.setOrder(degrees.length);
+    }
+
+    @Test
+    void findsRootsAndStopsEarly() {
+        RsWorkspace ws = new RsWorkspace(CODE);
+        // all roots among the first positions, the search ends long before the block does
+        setLocator(ws, 2, 0, 1);
+        assert CODE.chienSearch(ws, 0, 255);
+        assert Arrays.equals(Arrays.copyOf(ws.errorLocations, 3), new byte[]{0, 1, 2});
+
+        // the last position of a full block, found after numSkip erasures
+        setLocator(ws, 254, 7, 100, 31);
+        assert CODE.chienSearch(ws, 5, 255);
+        assert Arrays.equals(Arrays.copyOfRange(ws.errorLocations, 5, 9), new byte[]{7, 31, 100, (byte) 254});
+    }
+
+    @Test
+    void failsWhenTooFewPositionsRemain() {
+        RsWorkspace ws = new RsWorkspace(CODE);
+        // more roots than positions in the block
+        setLocator(ws, 0, 1, 2, 3, 4);
+        assert !CODE.chienSearch(ws, 0, 4);
+        // one root in the block, the other three beyond it
+        setLocator(ws, 0, 200, 210, 220);
+        assert !CODE.chienSearch(ws, 0, 20);
+        // a locator with no roots at all
+        ws.errorLocatorLog.setCoeff(0, (byte) 0);
+        ws.errorLocatorLog.setCoeff(1, (byte) 0);
+        ws.errorLocatorLog.setCoeff(2, (byte) 0);
+        ws.errorLocatorLog.setCoeff(3, CODE.getField().log(1));
+        ws.errorLocatorLog.setOrder(3);
+        assert !CODE.chienSearch(ws, 0, 255);
+    }
+
+    @Test
+    void rootsInThePaddingFail() {
+        RsWorkspace ws = new RsWorkspace(CODE);
+        setLocator(ws, 2, 5, 100);
+        assert !CODE.chienSearch(ws, 0, 64);
+        assert CODE.chienSearch(ws, 0, 101);
+
+        // a shortened block whose syndromes are those of errors at two degrees in the block
+        // and two in its padding. the parity part of the full length error pattern minus its
+        // codeword has the same syndromes and lies inside the shortened block
+        int encodedLength = 64;
+        byte[] msg = new byte[encodedLength - 32];
+        RANDOM.nextBytes(msg);
+        byte[] block = CODE.encode(msg);
+        byte[] pattern = new byte[255];
+        for (int degree : new int[]{10, 40, 150, 200}) {
+            pattern[254 - degree] = (byte) (1 + RANDOM.nextInt(255));
+        }
+        byte[] parity = CODE.encode(Arrays.copyOf(pattern, 223));
+        for (int j = 0; j < 32; j++) {
+            block[encodedLength - 32 + j] ^= pattern[223 + j] ^ parity[223 + j];
+        }
+        byte[] received = block.clone();
+        byte[] decoded = new byte[msg.length];
+        assert CODE.decode(ws, block, 0, encodedLength, decoded, 0) == -1;
+        assert Arrays.equals(block, received);
+        assert Arrays.equals(decoded, new byte[msg.length]);
+    }
+}
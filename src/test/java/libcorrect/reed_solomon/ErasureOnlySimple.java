@@ -0,0 +1,88 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class ErasureOnlySimple {
+    private final static Random RANDOM = new Random(13);
+
+    // also used by ErasurePatternCacheSimple
+    static byte[] distinctLocations(Random random, int count, int encodedLength) {
+        byte[] locations = new byte[count];
+        boolean[] used = new boolean[encodedLength];
+        for (int k = 0; k < count; k++) {
+            int index;
+            do {
+                index = random.nextInt(encodedLength);
+            } while (used[index]);
+            used[index] = true;
+            locations[k] = (byte) index;
+        }
+        return locations;
+    }
+
+    @Test
+    void recoversUpToNumRootsErasures() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32);
+        for (int msgLength : new int[]{223, 64, 1}) {
+            int encodedLength = msgLength + 32;
+            byte[] decoded = new byte[msgLength];
+            for (int i = 0; i < 500; i++) {
+                byte[] msg = new byte[msgLength];
+                RANDOM.nextBytes(msg);
+                byte[] encoded = rs.encode(msg);
+                byte[] erasures = distinctLocations(RANDOM, 1 + RANDOM.nextInt(32), encodedLength);
+                for (byte erasure : erasures) {
+                    encoded[Byte.toUnsignedInt(erasure)] = (byte) RANDOM.nextInt(256);
+                }
+                assert rs.decodeErasures(encoded, 0, encodedLength, erasures, erasures.length, decoded, 0) == erasures.length;
+                assert Arrays.equals(decoded, msg);
+                assert Arrays.equals(rs.decodeWithErasures(encoded, erasures), msg);
+            }
+        }
+    }
+
+    @Test
+    void detectsErrorsBesidesErasures() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 16);
+        byte[] decoded = new byte[100];
+        for (int i = 0; i < 500; i++) {
+            byte[] msg = new byte[100];
+            RANDOM.nextBytes(msg);
+            byte[] encoded = rs.encode(msg);
+            byte[] positions = distinctLocations(RANDOM, 11, encoded.length);
+            byte[] erasures = Arrays.copyOf(positions, 10);
+            for (byte erasure : erasures) {
+                encoded[Byte.toUnsignedInt(erasure)] ^= 1 + RANDOM.nextInt(255);
+            }
+            // one unknown error on top, which the full errors and erasures decoder still corrects
+            encoded[Byte.toUnsignedInt(positions[10])] ^= 1 + RANDOM.nextInt(255);
+            byte[] copy = decoded.clone();
+            assert rs.decodeErasures(encoded, 0, encoded.length, erasures, erasures.length, decoded, 0) == -1;
+            assert Arrays.equals(decoded, copy);
+            assert Arrays.equals(rs.decodeWithErasures(encoded, erasures), msg);
+        }
+    }
+
+    @Test
+    void rejectsLocationsOutsideTheBlock() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 16);
+        byte[] encoded = rs.encode(new byte[30]);
+        byte[] erasures = {3, (byte) encoded.length};
+        // an intact block must be rejected as well as a corrupted one
+        for (int corrupt = 0; corrupt < 2; corrupt++) {
+            encoded[3] ^= corrupt;
+            boolean thrown = false;
+            try {
+                rs.decodeErasures(encoded, 0, encoded.length, erasures, erasures.length, new byte[30], 0);
+            } catch (IllegalArgumentException e) {
+                thrown = true;
+            }
+            assert thrown;
+        }
+    }
+}
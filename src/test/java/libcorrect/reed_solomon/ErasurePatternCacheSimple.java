@@ -0,0 +1,108 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class ErasurePatternCacheSimple {
+    private final static Random RANDOM = new Random(17);
+
+    @Test
+    void reusesPatternsAcrossCodewords() {
+        ReedSolomonCode code = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32,
+                Field.CORRECT_FIELD_LOG_EXP);
+        RsWorkspace ws = new RsWorkspace(code);
+        // more patterns than the workspace keeps, visited in turn so that they get evicted
+        int encodedLength = 255;
+        byte[][] patterns = new byte[40][];
+        for (int p = 0; p < patterns.length; p++) {
+            patterns[p] = ErasureOnlySimple.distinctLocations(RANDOM, 1 + RANDOM.nextInt(32), encodedLength);
+        }
+        byte[] decoded = new byte[encodedLength - 32];
+        for (int i = 0; i < 2000; i++) {
+            byte[] erasures = patterns[i < 1000 ? i % 3 : RANDOM.nextInt(patterns.length)];
+            byte[] msg = new byte[encodedLength - 32];
+            RANDOM.nextBytes(msg);
+            byte[] encoded = code.encode(msg);
+            for (byte erasure : erasures) {
+                encoded[Byte.toUnsignedInt(erasure)] ^= RANDOM.nextInt(256);
+            }
+            assert code.decodeErasures(ws, encoded, 0, encodedLength, erasures, erasures.length, decoded, 0) == erasures.length;
+            assert Arrays.equals(decoded, msg);
+            assert ws.erasurePatterns.size() <= 16;
+
+            // an error outside the pattern is still caught with a cached pattern, as long as
+            // the erasures leave a syndrome to check
+            if (erasures.length == 32) {
+                continue;
+            }
+            int index;
+            do {
+                index = RANDOM.nextInt(encodedLength);
+            } while (contains(erasures, index));
+            encoded[index] ^= 1 + RANDOM.nextInt(255);
+            assert code.decodeErasures(ws, encoded, 0, encodedLength, erasures, erasures.length, decoded, 0) == -1;
+        }
+    }
+
+    @Test
+    void patternsDependOnBlockLength() {
+        ReedSolomonCode code = ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 16,
+                Field.CORRECT_FIELD_LOG_EXP);
+        RsWorkspace ws = new RsWorkspace(code);
+        byte[] erasures = {0, 5, 17, 30};
+        for (int round = 0; round < 3; round++) {
+            for (int msgLength : new int[]{100, 20}) {
+                byte[] msg = new byte[msgLength];
+                RANDOM.nextBytes(msg);
+                byte[] encoded = code.encode(msg);
+                for (byte erasure : erasures) {
+                    encoded[erasure] ^= 1 + RANDOM.nextInt(255);
+                }
+                byte[] decoded = new byte[msgLength];
+                assert code.decodeErasures(ws, encoded, 0, encoded.length, erasures, erasures.length, decoded, 0) == 4;
+                assert Arrays.equals(decoded, msg);
+
+                // a location listed twice cannot be decoded, cached or not
+                byte[] twice = {0, 5, 5};
+                assert code.decodeErasures(ws, encoded, 0, encoded.length, twice, twice.length, decoded, 0) == -1;
+            }
+        }
+    }
+
+    @Test
+    void patternsFollowTheCode() {
+        ReedSolomonCode ccsds = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32,
+                Field.CORRECT_FIELD_LOG_EXP);
+        ReedSolomonCode other = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32,
+                Field.CORRECT_FIELD_LOG_EXP);
+        // one workspace shared by two codes with the same number of roots, with as many
+        // erasures as roots so that no syndrome is left to catch a wrong pattern
+        RsWorkspace ws = new RsWorkspace(ccsds);
+        byte[] erasures = ErasureOnlySimple.distinctLocations(RANDOM, 32, 255);
+        for (int i = 0; i < 10; i++) {
+            ReedSolomonCode code = i % 2 == 0 ? ccsds : other;
+            byte[] msg = new byte[223];
+            RANDOM.nextBytes(msg);
+            byte[] encoded = code.encode(msg);
+            for (byte erasure : erasures) {
+                encoded[Byte.toUnsignedInt(erasure)] ^= 1 + RANDOM.nextInt(255);
+            }
+            byte[] decoded = new byte[223];
+            assert code.decodeErasures(ws, encoded, 0, 255, erasures, 32, decoded, 0) == 32;
+            assert Arrays.equals(decoded, msg);
+        }
+    }
+
+    private static boolean contains(byte[] locations, int index) {
+        for (byte location : locations) {
+            if (Byte.toUnsignedInt(location) == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
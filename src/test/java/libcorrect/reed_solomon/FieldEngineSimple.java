@@ -0,0 +1,105 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.Field.*;
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class FieldEngineSimple {
+    private final static int[] ENGINES = {CORRECT_FIELD_LOG_EXP, CORRECT_FIELD_PRODUCT_TABLE,
+            CORRECT_FIELD_SENTINEL_LOG, CORRECT_FIELD_SPLIT_NIBBLE};
+
+    // shift and add multiplication, reduced by the primitive polynomial
+    private static byte slowMul(int l, int r, int poly) {
+        int res = 0;
+        for (int bit = 7; bit >= 0; bit--) {
+            res <<= 1;
+            if ((res & 0x100) != 0) {
+                res ^= poly;
+            }
+            if ((r >>> bit & 1) != 0) {
+                res ^= l;
+            }
+        }
+        return (byte) res;
+    }
+
+    @Test
+    void enginesAgreeOnEveryProduct() {
+        short poly = correctRsPrimitivePolynomialCcsds;
+        for (int engine : ENGINES) {
+            Field field = new Field(poly, engine);
+            for (int l = 0; l < 256; l++) {
+                for (int r = 0; r < 256; r++) {
+                    byte product = field.fieldMul((byte) l, (byte) r);
+                    assert product == slowMul(l, r, poly);
+                    if (r != 0) {
+                        assert field.fieldDiv(product, (byte) r) == (byte) (l);
+                    }
+                }
+            }
+            assert field.fieldDiv((byte) 0, (byte) 0) == 0;
+        }
+    }
+
+    @Test
+    void bulkMatchesSingleProducts() {
+        Random random = new Random(1);
+        byte[] src = new byte[300];
+        random.nextBytes(src);
+        src[7] = 0;
+        for (int engine : ENGINES) {
+            Field field = new Field(correctRsPrimitivePolynomial_8_4_3_2_0, engine);
+            for (int c : new int[]{0, 1, 2, 0x53, 0xff}) {
+                byte[] dst = new byte[310];
+                byte[] acc = Arrays.copyOf(src, 310);
+                field.fieldMulConst(src, 3, (byte) c, dst, 5, 290);
+                field.fieldMulConstAdd(src, 3, (byte) c, acc, 5, 290);
+                for (int i = 0; i < 290; i++) {
+                    byte expected = field.fieldMul(src[3 + i], (byte) c);
+                    assert dst[5 + i] == expected;
+                    assert acc[5 + i] == (byte) (src[5 + i] ^ expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void reedSolomonWithEveryEngine() {
+        Random random = new Random(2);
+        for (int engine : ENGINES) {
+            ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32, engine);
+            byte[] msg = new byte[223];
+            random.nextBytes(msg);
+            byte[] encoded = rs.encode(msg);
+            for (int i = 0; i < 16; i++) {
+                encoded[i * 15] ^= 1 + random.nextInt(255);
+            }
+            assert Arrays.equals(rs.decode(encoded), msg);
+        }
+    }
+
+    // the errors and erasures mixes of the ReedSolomonTest suites, fewer iterations
+    @ParameterizedTest
+    @ValueSource(ints = {CORRECT_FIELD_LOG_EXP, CORRECT_FIELD_PRODUCT_TABLE, CORRECT_FIELD_SENTINEL_LOG,
+            CORRECT_FIELD_SPLIT_NIBBLE})
+    void testBenchWithEngine(int engine) {
+        for (int minDistance : new int[]{8, 32}) {
+            ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, minDistance, engine);
+            RSTestBench testBench = new RSTestBench(255, minDistance);
+            long messageLength = 255 - minDistance;
+            long[][] mixes = {{0, 0}, {minDistance / 2, 0}, {0, minDistance}, {minDistance / 4, minDistance / 2}};
+            for (long[] mix : mixes) {
+                for (int i = 0; i < 500; i++) {
+                    long testMsgLength = i % 2 == 0 ? messageLength : messageLength / 2;
+                    assert testBench.testRsErrors(rs, testMsgLength, mix[0], mix[1]).getOutputMatches();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class GenericReedSolomonSimple {
+    private final static Random RANDOM = new Random(5);
+
+    private static int[] randomSymbols(GaloisField field, int length) {
+        int[] symbols = new int[length];
+        for (int i = 0; i < length; i++) {
+            symbols[i] = RANDOM.nextInt(field.getOrder() + 1);
+        }
+        return symbols;
+    }
+
+    @Test
+    void everySymbolSizeHasAField() {
+        for (int m = GaloisField.MIN_SYMBOL_SIZE; m <= GaloisField.MAX_SYMBOL_SIZE; m++) {
+            GaloisField field = GaloisField.ofSymbolSize(m);
+            assert field.getOrder() == (1 << m) - 1;
+            for (int i = 0; i < 100; i++) {
+                int a = 1 + RANDOM.nextInt(field.getOrder());
+                int b = 1 + RANDOM.nextInt(field.getOrder());
+                assert field.div(field.mul(a, b), b) == a;
+                assert field.mul(a, field.pow(a, -1)) == 1;
+            }
+        }
+        boolean thrown = false;
+        try {
+            GaloisField.ofSymbolSize(8).div(7, 0);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+        thrown = false;
+        try {
+            // x^4 + 1 is not primitive
+            new GaloisField(4, 0x11);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+
+    @Test
+    void matchesByteCodeInGf256() {
+        GenericReedSolomon generic = new GenericReedSolomon(new GaloisField(8, correctRsPrimitivePolynomialCcsds), 112, 11, 32);
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32);
+        byte[] msg = new byte[200];
+        RANDOM.nextBytes(msg);
+        byte[] encoded = rs.encode(msg);
+        int[] symbols = new int[msg.length];
+        for (int i = 0; i < msg.length; i++) {
+            symbols[i] = Byte.toUnsignedInt(msg[i]);
+        }
+        int[] genericEncoded = generic.encode(symbols);
+        for (int i = 0; i < encoded.length; i++) {
+            assert genericEncoded[i] == Byte.toUnsignedInt(encoded[i]);
+        }
+    }
+
+    @Test
+    void correctsErrorsAndErasures() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int m : new int[]{4, 8, 10, 16}) {
+                GaloisField field = GaloisField.ofSymbolSize(m);
+                int numRoots = Math.min(32, field.getOrder() / 2);
+                GenericReedSolomon rs = new GenericReedSolomon(field, 1, 1, numRoots, pool);
+                for (int msgLength : new int[]{field.getOrder() - numRoots, numRoots + 1}) {
+                    int length = msgLength + numRoots;
+                    int[] msg = randomSymbols(field, msgLength);
+                    int[] sent = rs.encode(msg);
+
+                    int[] received = sent.clone();
+                    int numErrors = numRoots / 2;
+                    for (int e = 0; e < numErrors; e++) {
+                        received[e * (length / numErrors)] ^= 1 + RANDOM.nextInt(field.getOrder());
+                    }
+                    assert rs.decode(received, 0, length) == numErrors;
+                    assert Arrays.equals(received, sent);
+
+                    // numRoots / 4 errors and numRoots / 2 erasures
+                    received = sent.clone();
+                    int[] erasures = new int[numRoots / 2];
+                    for (int k = 0; k < erasures.length; k++) {
+                        erasures[k] = length - 1 - 2 * k;
+                        received[erasures[k]] ^= 1 + RANDOM.nextInt(field.getOrder());
+                    }
+                    for (int e = 0; e < numRoots / 4; e++) {
+                        received[2 * e] ^= 1 + RANDOM.nextInt(field.getOrder());
+                    }
+                    assert rs.decodeWithErasures(received, 0, length, erasures, erasures.length) >= numRoots / 4;
+                    assert Arrays.equals(received, sent);
+
+                    // too many errors leave the block as received
+                    received = sent.clone();
+                    for (int e = 0; e <= numRoots / 2 + 2; e++) {
+                        received[e] ^= 1 + RANDOM.nextInt(field.getOrder());
+                    }
+                    int[] corrupted = received.clone();
+                    if (rs.decode(received, 0, length) < 0) {
+                        assert Arrays.equals(received, corrupted);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void miscorrectionsAreCodewords() {
+        // errors beyond the radius of small codes. when the decoder still reports a
+        // correction, the block it leaves must be a codeword
+        for (int m : new int[]{3, 4, 8}) {
+            GaloisField field = GaloisField.ofSymbolSize(m);
+            for (int numRoots = 2; numRoots <= 6; numRoots++) {
+                GenericReedSolomon rs = new GenericReedSolomon(field, 1, 1, numRoots);
+                int length = Math.min(field.getOrder(), 40);
+                for (int i = 0; i < 2000; i++) {
+                    int[] received = rs.encode(randomSymbols(field, length - numRoots));
+                    int numErrors = numRoots / 2 + 1 + RANDOM.nextInt(3);
+                    for (int e = 0; e < numErrors; e++) {
+                        received[RANDOM.nextInt(length)] ^= 1 + RANDOM.nextInt(field.getOrder());
+                    }
+                    int[] erasures = {RANDOM.nextInt(length)};
+                    int numErasures = RANDOM.nextInt(2);
+                    if (rs.decodeWithErasures(received, 0, length, erasures, numErasures) >= 0) {
+                        assert Arrays.equals(rs.encode(Arrays.copyOf(received, length - numRoots)), received);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsErasuresOutsideTheBlock() {
+        GenericReedSolomon rs = new GenericReedSolomon(GaloisField.ofSymbolSize(10), 1, 1, 8);
+        int[] encoded = rs.encode(new int[20]);
+        for (int erasure : new int[]{-1, encoded.length}) {
+            boolean thrown = false;
+            try {
+                rs.decodeWithErasures(encoded, 0, encoded.length, new int[]{2, erasure}, 2);
+            } catch (IllegalArgumentException e) {
+                thrown = true;
+            }
+            assert thrown;
+        }
+    }
+}
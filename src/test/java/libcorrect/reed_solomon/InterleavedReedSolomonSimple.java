@@ -0,0 +1,105 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class InterleavedReedSolomonSimple {
+    private final static Random RANDOM = new Random(3);
+
+    private static byte[] lane(byte[] frame, int depth, int lane, int length) {
+        byte[] codeword = new byte[length];
+        for (int j = 0; j < length; j++) {
+            codeword[j] = frame[j * depth + lane];
+        }
+        return codeword;
+    }
+
+    @Test
+    void matchesDeinterleavedCodewords() {
+        ReedSolomonCode code = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32,
+                Field.CORRECT_FIELD_LOG_EXP);
+        for (int depth = 1; depth <= InterleavedReedSolomon.MAX_DEPTH; depth++) {
+            InterleavedReedSolomon irs = new InterleavedReedSolomon(code, depth);
+            for (int msgLength : new int[]{223, 100}) {
+                int encodedLength = msgLength + 32;
+                byte[] frame = new byte[depth * encodedLength];
+                RANDOM.nextBytes(frame);
+                byte[] payload = Arrays.copyOf(frame, depth * msgLength);
+                irs.encode(frame, 0, msgLength);
+                assert Arrays.equals(Arrays.copyOf(frame, depth * msgLength), payload);
+                for (int lane = 0; lane < depth; lane++) {
+                    byte[] codeword = lane(frame, depth, lane, encodedLength);
+                    assert Arrays.equals(code.encode(Arrays.copyOf(codeword, msgLength)), codeword);
+                }
+
+                byte[] sent = frame.clone();
+                int[] errors = new int[depth];
+                for (int lane = 0; lane < depth; lane++) {
+                    // the last lane of the deeper frames gets more errors than the code can correct
+                    errors[lane] = depth > 2 && lane == depth - 1 ? 20 : RANDOM.nextInt(17);
+                    for (int e = 0; e < errors[lane]; e++) {
+                        frame[e * 6 * depth + lane] ^= 1 + RANDOM.nextInt(255);
+                    }
+                }
+                byte[] received = frame.clone();
+                int[] corrected = new int[depth];
+                int failed = irs.decode(frame, 0, encodedLength, corrected);
+                assert failed == (depth > 2 ? 1 : 0);
+                for (int lane = 0; lane < depth; lane++) {
+                    if (errors[lane] <= 16) {
+                        assert corrected[lane] == errors[lane];
+                        assert Arrays.equals(lane(frame, depth, lane, encodedLength), lane(sent, depth, lane, encodedLength));
+                    } else {
+                        assert corrected[lane] == -1;
+                        assert Arrays.equals(lane(frame, depth, lane, encodedLength), lane(received, depth, lane, encodedLength));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean throwsIllegalArgument(Runnable call) {
+        try {
+            call.run();
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        return false;
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        ReedSolomonCode code = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32,
+                Field.CORRECT_FIELD_LOG_EXP);
+        InterleavedReedSolomon irs = new InterleavedReedSolomon(code, 4);
+        byte[] frame = new byte[4 * 100];
+        assert throwsIllegalArgument(() -> irs.encode(frame, 0, -1));
+        // 4 * (70 + 32) bytes do not fit, nor does the frame at an offset
+        assert throwsIllegalArgument(() -> irs.encode(frame, 0, 70));
+        assert throwsIllegalArgument(() -> irs.encode(frame, 1, 68));
+        irs.encode(frame, 0, 68);
+
+        assert throwsIllegalArgument(() -> irs.decode(frame, 0, 31, null));
+        assert throwsIllegalArgument(() -> irs.decode(frame, 0, 101, null));
+        assert throwsIllegalArgument(() -> irs.decode(frame, 4, 100, null));
+        assert throwsIllegalArgument(() -> irs.decode(frame, 0, 100, new int[3]));
+        assert irs.decode(frame, 0, 100, new int[4]) == 0;
+    }
+
+    @Test
+    void rejectsBadDepth() {
+        ReedSolomonCode code = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32,
+                Field.CORRECT_FIELD_LOG_EXP);
+        boolean thrown = false;
+        try {
+            new InterleavedReedSolomon(code, 9);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+}
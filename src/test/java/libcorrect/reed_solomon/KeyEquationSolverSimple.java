@@ -0,0 +1,90 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+import static libcorrect.reed_solomon.ReedSolomonCode.*;
+
+public class KeyEquationSolverSimple {
+    private final static Random RANDOM = new Random(11);
+
+    @Test
+    void solversDecodeAlike() {
+        for (int numRoots : new int[]{4, 16, 32}) {
+            ReedSolomonCode code = new ReedSolomonCode(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, numRoots);
+            ReedSolomonCode[] codes = {code, code.withKeyEquationSolver(CORRECT_RS_INVERSIONLESS_BM),
+                    code.withKeyEquationSolver(CORRECT_RS_EUCLID)};
+            for (int i = 0; i < 3000; i++) {
+                int msgLength = 1 + RANDOM.nextInt(255 - numRoots);
+                byte[] msg = new byte[msgLength];
+                RANDOM.nextBytes(msg);
+                byte[] encoded = code.encode(msg);
+                // up to a few more errors than the code can correct
+                int numErrors = RANDOM.nextInt(numRoots / 2 + 3);
+                for (int e = 0; e < numErrors; e++) {
+                    encoded[RANDOM.nextInt(encoded.length)] ^= 1 + RANDOM.nextInt(255);
+                }
+                byte[] erasures = new byte[RANDOM.nextInt(numRoots / 2 + 1)];
+                for (int e = 0; e < erasures.length; e++) {
+                    erasures[e] = (byte) (e * encoded.length / erasures.length);
+                    encoded[Byte.toUnsignedInt(erasures[e])] ^= RANDOM.nextInt(256);
+                }
+
+                byte[][] decoded = new byte[codes.length][msgLength];
+                int[] corrected = new int[codes.length];
+                byte[][] withErasures = new byte[codes.length][];
+                for (int c = 0; c < codes.length; c++) {
+                    corrected[c] = codes[c].decode(new RsWorkspace(codes[c]), encoded, 0, encoded.length, decoded[c], 0);
+                    withErasures[c] = codes[c].decodeWithErasures(encoded, erasures);
+                }
+                // beyond the correction radius the solvers may give up on different blocks
+                for (int c = 0; c < codes.length; c++) {
+                    if (2 * (numErrors + erasures.length) <= numRoots) {
+                        assert corrected[c] == corrected[0];
+                        assert Arrays.equals(decoded[c], msg);
+                    }
+                    if (2 * numErrors + erasures.length <= numRoots) {
+                        assert Arrays.equals(withErasures[c], msg);
+                    }
+                }
+            }
+        }
+    }
+
+    // the errors and erasures mixes of the ReedSolomonTest suites, fewer iterations
+    @ParameterizedTest
+    @ValueSource(ints = {CORRECT_RS_BERLEKAMP_MASSEY, CORRECT_RS_INVERSIONLESS_BM, CORRECT_RS_EUCLID})
+    void testBenchWithSolver(int solver) {
+        for (int minDistance : new int[]{4, 16, 32}) {
+            ReedSolomon rs = new ReedSolomon(new ReedSolomonCode(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1,
+                    minDistance).withKeyEquationSolver(solver));
+            RSTestBench testBench = new RSTestBench(255, minDistance);
+            long messageLength = 255 - minDistance;
+            long[][] mixes = {{minDistance / 2, 0}, {0, minDistance}, {minDistance / 4, minDistance / 2}};
+            for (long[] mix : mixes) {
+                for (int i = 0; i < 500; i++) {
+                    long testMsgLength = i % 2 == 0 ? messageLength : messageLength / 2;
+                    assert testBench.testRsErrors(rs, testMsgLength, mix[0], mix[1]).getOutputMatches();
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsUnknownSolver() {
+        ReedSolomonCode code = new ReedSolomonCode(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 8);
+        assert code.withKeyEquationSolver(CORRECT_RS_BERLEKAMP_MASSEY) == code;
+        boolean thrown = false;
+        try {
+            code.withKeyEquationSolver(CORRECT_RS_EUCLID + 1);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+    }
+}
@@ -0,0 +1,60 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class LfsrEncoderSimple {
+    private final static Random RANDOM = new Random(1);
+
+    // parity by long division: msg(x) * x^numRoots mod g(x)
+    private static byte[] divisionParity(Field field, Polynomial generator, byte[] msg) {
+        int numRoots = generator.getOrder();
+        Polynomial dividend = new Polynomial(msg.length + numRoots - 1);
+        for (int i = 0; i < msg.length; i++) {
+            dividend.setCoeff(msg.length + numRoots - 1 - i, msg[i]);
+        }
+        Polynomial remainder = new Polynomial(dividend.getOrder());
+        Polynomial.mod(field, dividend, generator, remainder);
+        byte[] parity = new byte[numRoots];
+        for (int i = 0; i < numRoots; i++) {
+            parity[i] = remainder.getCoeff(numRoots - 1 - i);
+        }
+        return parity;
+    }
+
+    @Test
+    void matchesPolynomialDivision() {
+        Field field = new Field(correctRsPrimitivePolynomialCcsds);
+        for (int numRoots : new int[]{1, 2, 8, 16, 31, 32, 33, 48, 64}) {
+            byte[] roots = new byte[numRoots];
+            for (int i = 0; i < numRoots; i++) {
+                roots[i] = field.exp(i + 1);
+            }
+            Polynomial generator = new Polynomial(field, numRoots, roots);
+            LfsrEncoder encoder = new LfsrEncoder(field, generator);
+            for (int trial = 0; trial < 10; trial++) {
+                byte[] msg = new byte[1 + RANDOM.nextInt(255 - numRoots)];
+                RANDOM.nextBytes(msg);
+                byte[] parity = new byte[numRoots + 2];
+                encoder.encode(msg, 0, msg.length, parity, 1);
+                assert Arrays.equals(Arrays.copyOfRange(parity, 1, numRoots + 1), divisionParity(field, generator, msg));
+            }
+        }
+    }
+
+    @Test
+    void encodedBlocksHaveZeroSyndromes() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32);
+        for (int length = 0; length <= 223; length += 37) {
+            byte[] msg = new byte[length];
+            RANDOM.nextBytes(msg);
+            byte[] encoded = rs.encode(msg);
+            assert Arrays.equals(Arrays.copyOf(encoded, length), msg);
+            assert Arrays.equals(rs.decode(encoded), msg);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class ReedSolomonCacheSimple {
+
+    @Test
+    void sameParametersShareTables() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32);
+        ReedSolomon other = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32);
+        assert rs.getCode() == other.getCode();
+        ReedSolomon fewerRoots = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 16);
+        assert fewerRoots.getCode() != rs.getCode();
+        assert fewerRoots.getCode().getField() == rs.getCode().getField();
+        ReedSolomon otherEngine = new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32,
+                Field.CORRECT_FIELD_PRODUCT_TABLE);
+        assert otherEngine.getCode() != rs.getCode();
+        assert otherEngine.getCode().getField() != rs.getCode().getField();
+
+        byte[] msg = "cached".getBytes();
+        byte[] encoded = rs.encode(msg);
+        encoded[1] ^= 0x21;
+        assert Arrays.equals(other.decode(encoded), msg);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ReedSolomonCode first = ReedSolomonCache.warmUp(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 2,
+                Field.CORRECT_FIELD_LOG_EXP);
+        try {
+            ReedSolomonCache.setMaxCodes(2);
+            assert ReedSolomonCache.codeCount() <= 2;
+            ReedSolomonCode second = ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 4,
+                    Field.CORRECT_FIELD_LOG_EXP);
+            assert ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 4,
+                    Field.CORRECT_FIELD_LOG_EXP) == second;
+            // touching first makes the code with 4 roots the least recently used
+            assert ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 2,
+                    Field.CORRECT_FIELD_LOG_EXP) == first;
+            ReedSolomonCode third = ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 6,
+                    Field.CORRECT_FIELD_LOG_EXP);
+            assert ReedSolomonCache.codeCount() == 2;
+            // the newest code is kept, and so is first
+            assert ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 6,
+                    Field.CORRECT_FIELD_LOG_EXP) == third;
+            assert ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 2,
+                    Field.CORRECT_FIELD_LOG_EXP) == first;
+            // the code with 4 roots was evicted and is built again
+            assert ReedSolomonCache.code(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 4,
+                    Field.CORRECT_FIELD_LOG_EXP) != second;
+
+            // an evicted code keeps working for whoever holds it
+            ReedSolomonCache.clear();
+            assert ReedSolomonCache.codeCount() == 0;
+            byte[] msg = "evicted".getBytes();
+            assert Arrays.equals(first.decode(first.encode(msg)), msg);
+        } finally {
+            ReedSolomonCache.setMaxCodes(64);
+        }
+    }
+}
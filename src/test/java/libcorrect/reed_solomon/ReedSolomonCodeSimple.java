@@ -0,0 +1,60 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class ReedSolomonCodeSimple {
+
+    @Test
+    void oneCodeManyThreads() throws InterruptedException {
+        ReedSolomonCode code = new ReedSolomonCode(correctRsPrimitivePolynomialCcsds, (byte) 1, (byte) 1, 32);
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Random random = new Random(t);
+            boolean ownWorkspace = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                RsWorkspace ws = new RsWorkspace(code);
+                byte[] decoded = new byte[223];
+                for (int i = 0; i < 2000; i++) {
+                    byte[] msg = new byte[223];
+                    random.nextBytes(msg);
+                    byte[] encoded = code.encode(msg);
+                    int errors = random.nextInt(17);
+                    for (int e = 0; e < errors; e++) {
+                        encoded[e * 13] ^= 1 + random.nextInt(255);
+                    }
+                    if (ownWorkspace) {
+                        if (code.decode(ws, encoded, 0, encoded.length, decoded, 0) != errors || !Arrays.equals(decoded, msg)) {
+                            mismatches.incrementAndGet();
+                        }
+                    } else if (!Arrays.equals(code.decode(encoded), msg)) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert mismatches.get() == 0;
+    }
+
+    @Test
+    void facadesShareTheCode() {
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 8);
+        ReedSolomon other = new ReedSolomon(rs.getCode());
+        assert other.getCode() == rs.getCode();
+        byte[] msg = "shared tables".getBytes();
+        byte[] encoded = rs.encode(msg);
+        encoded[2] ^= 0x40;
+        assert Arrays.equals(other.decode(encoded), msg);
+        assert Arrays.equals(other.decodeWithErasures(encoded, new byte[]{2, 5}), msg);
+    }
+}
@@ -0,0 +1,47 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class ShortenedCodeSimple {
+    private final static Random RANDOM = new Random(19);
+
+    @Test
+    void decodesShortFramesWithoutTouchingTheBlock() {
+        ReedSolomonCode code = ReedSolomonCache.code(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 16,
+                Field.CORRECT_FIELD_LOG_EXP);
+        RsWorkspace ws = new RsWorkspace(code);
+        for (int encodedLength : new int[]{48, 17}) {
+            int msgLength = encodedLength - 16;
+            for (int i = 0; i < 1000; i++) {
+                byte[] msg = new byte[msgLength];
+                RANDOM.nextBytes(msg);
+                byte[] frame = new byte[encodedLength + 5];
+                System.arraycopy(code.encode(msg), 0, frame, 3, encodedLength);
+                int numErrors = RANDOM.nextInt(9);
+                for (int e = 0; e < numErrors; e++) {
+                    // errors at distinct positions, some of them in the parity
+                    frame[3 + e * (encodedLength / 8)] ^= 1 + RANDOM.nextInt(255);
+                }
+                byte[] received = frame.clone();
+                byte[] decoded = new byte[msgLength + 2];
+                assert code.decode(ws, frame, 3, encodedLength, decoded, 1) == numErrors;
+                assert Arrays.equals(decoded, 1, msgLength + 1, msg, 0, msgLength);
+                assert decoded[0] == 0 && decoded[msgLength + 1] == 0;
+                assert Arrays.equals(frame, received);
+
+                byte[] erasures = {(byte) (encodedLength - 1), 0};
+                byte[] block = Arrays.copyOfRange(frame, 3, 3 + encodedLength);
+                block[encodedLength - 1] ^= 0x5a;
+                block[0] ^= 0x33;
+                if (numErrors <= 7) {
+                    assert Arrays.equals(code.decodeWithErasures(ws, block, erasures), msg);
+                }
+            }
+        }
+    }
+}
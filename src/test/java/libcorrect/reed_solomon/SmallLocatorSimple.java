@@ -0,0 +1,69 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class SmallLocatorSimple {
+    private final static Random RANDOM = new Random(7);
+
+    private static void correctsFewErrors(ReedSolomon rs, int numRoots) {
+        for (int msgLength : new int[]{255 - numRoots, 48, 1}) {
+            int encodedLength = msgLength + numRoots;
+            byte[] decoded = new byte[msgLength];
+            for (int i = 0; i < 2000; i++) {
+                byte[] msg = new byte[msgLength];
+                RANDOM.nextBytes(msg);
+                byte[] encoded = rs.encode(msg);
+                int first = RANDOM.nextInt(encodedLength);
+                encoded[first] ^= 1 + RANDOM.nextInt(255);
+                int errors = 1;
+                if (i % 2 == 1) {
+                    int second = (first + 1 + RANDOM.nextInt(encodedLength - 1)) % encodedLength;
+                    encoded[second] ^= 1 + RANDOM.nextInt(255);
+                    errors = 2;
+                }
+                assert rs.decode(encoded, 0, encodedLength, decoded, 0) == errors;
+                assert Arrays.equals(decoded, msg);
+            }
+        }
+    }
+
+    @Test
+    void correctsOneAndTwoErrors() {
+        correctsFewErrors(new ReedSolomon(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 4), 4);
+        correctsFewErrors(new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 112, (byte) 11, 32), 32);
+        correctsFewErrors(new ReedSolomon(correctRsPrimitivePolynomialCcsds, (byte) 0, (byte) 7, 16), 16);
+    }
+
+    @Test
+    void miscorrectionsAreCodewords() {
+        // three errors are beyond a code with 4 roots. when the decoder still finds one or
+        // two errors, what it returns must be a codeword that close to the received block
+        ReedSolomon rs = new ReedSolomon(correctRsPrimitivePolynomial_8_4_3_2_0, (byte) 1, (byte) 1, 4);
+        byte[] decoded = new byte[20];
+        int miscorrected = 0;
+        for (int i = 0; i < 5000; i++) {
+            byte[] msg = new byte[20];
+            RANDOM.nextBytes(msg);
+            byte[] encoded = rs.encode(msg);
+            encoded[RANDOM.nextInt(8)] ^= 1 + RANDOM.nextInt(255);
+            encoded[8 + RANDOM.nextInt(8)] ^= 1 + RANDOM.nextInt(255);
+            encoded[16 + RANDOM.nextInt(8)] ^= 1 + RANDOM.nextInt(255);
+            int corrected = rs.decode(encoded, 0, encoded.length, decoded, 0);
+            if (corrected >= 0) {
+                byte[] codeword = rs.encode(decoded);
+                int distance = 0;
+                for (int j = 0; j < codeword.length; j++) {
+                    distance += codeword[j] != encoded[j] ? 1 : 0;
+                }
+                assert distance == corrected && corrected <= 2;
+                miscorrected++;
+            }
+        }
+        assert miscorrected > 0;
+    }
+}
@@ -0,0 +1,48 @@
+package libcorrect.reed_solomon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static libcorrect.reed_solomon.ReedSolomon.*;
+
+public class SyndromeEngineSimple {
+    private final static Random RANDOM = new Random(1);
+
+    @Test
+    void matchesEvaluationAtRoots() {
+        Field field = new Field(correctRsPrimitivePolynomial_8_4_3_2_0);
+        for (int numRoots : new int[]{2, 16, 32, 40}) {
+            byte[] roots = new byte[numRoots];
+            for (int i = 0; i < numRoots; i++) {
+                roots[i] = field.exp((11 * (i + 112)) % 255);
+            }
+            LfsrEncoder encoder = new LfsrEncoder(field, new Polynomial(field, numRoots, roots));
+            SyndromeEngine engine = new SyndromeEngine(field, encoder, roots);
+            byte[] syndromes = new byte[numRoots];
+            byte[] remainder = new byte[numRoots];
+            for (int trial = 0; trial < 10; trial++) {
+                int length = numRoots + RANDOM.nextInt(256 - numRoots);
+                byte[] block = new byte[length];
+                RANDOM.nextBytes(block);
+                if (trial % 2 == 0) {
+                    // a codeword
+                    encoder.encode(block, 0, length - numRoots, block, length - numRoots);
+                }
+                Polynomial received = new Polynomial(length - 1);
+                for (int i = 0; i < length; i++) {
+                    received.setCoeff(length - 1 - i, block[i]);
+                }
+                boolean allZero = engine.compute(block, 0, length, syndromes, remainder);
+                boolean expectZero = true;
+                for (int i = 0; i < numRoots; i++) {
+                    byte expected = Polynomial.eval(field, received, roots[i]);
+                    assert syndromes[i] == expected;
+                    expectZero &= expected == 0;
+                }
+                assert allZero == expectZero;
+                assert allZero == (trial % 2 == 0);
+            }
+        }
+    }
+}
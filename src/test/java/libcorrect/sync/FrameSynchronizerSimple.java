@@ -0,0 +1,195 @@
+package libcorrect.sync;
+
+import libcorrect.convolutional.BitWriter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static libcorrect.sync.FrameSynchronizer.CORRECT_SYNC_CCSDS_ASM;
+import static libcorrect.sync.FrameSynchronizer.CORRECT_SYNC_CCSDS_ASM_BITS;
+import static libcorrect.sync.FrameSynchronizer.CORRECT_SYNC_FLYWHEEL;
+import static libcorrect.sync.FrameSynchronizer.CORRECT_SYNC_LOCK;
+import static libcorrect.sync.FrameSynchronizer.CORRECT_SYNC_SEARCH;
+
+public class FrameSynchronizerSimple {
+    private final static Random RANDOM = new Random(1);
+    private final static int FRAME_LENGTH = 64;
+
+    // junk bits, then every frame behind a marker, then junk bits again
+    private static byte[] stream(byte[][] frames, int junkBits, boolean inverted, int badMarker) {
+        byte[] stream = new byte[frames.length * (FRAME_LENGTH + 4) + 8];
+        BitWriter writer = new BitWriter(stream, stream.length);
+        writer.writeBits(RANDOM.nextLong(), junkBits);
+        for (int f = 0; f < frames.length; f++) {
+            writer.writeBits(f == badMarker ? ~CORRECT_SYNC_CCSDS_ASM : CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS);
+            for (byte b : frames[f]) {
+                writer.writeBits(b, 8);
+            }
+        }
+        writer.writeBits(RANDOM.nextLong(), 64 - junkBits);
+        writer.flushByte();
+        if (inverted) {
+            for (int i = 0; i < stream.length; i++) {
+                stream[i] = (byte) ~stream[i];
+            }
+        }
+        return stream;
+    }
+
+    private static byte[][] frames(int count) {
+        byte[][] frames = new byte[count][FRAME_LENGTH];
+        for (byte[] frame : frames) {
+            RANDOM.nextBytes(frame);
+        }
+        return frames;
+    }
+
+    // push in chunks of random size
+    private static void push(FrameSynchronizer sync, byte[] stream, boolean soft) {
+        int i = 0;
+        while (i < stream.length) {
+            int n = Math.min(stream.length - i, 1 + RANDOM.nextInt(40));
+            if (soft) {
+                sync.pushSoft(stream, i, n);
+            } else {
+                sync.pushBits(stream, i, n);
+            }
+            i += n;
+        }
+    }
+
+    @Test
+    void findsFramesAtAnyOffset() {
+        for (int junkBits = 0; junkBits < 16; junkBits++) {
+            for (boolean inverted : new boolean[]{false, true}) {
+                byte[][] frames = frames(5);
+                List<byte[]> received = new ArrayList<>();
+                FrameSynchronizer sync = new FrameSynchronizer(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS,
+                        8 * FRAME_LENGTH, (frame, length) -> received.add(Arrays.copyOf(frame, length)));
+                push(sync, stream(frames, junkBits, inverted, -1), false);
+                assert received.size() == frames.length;
+                for (int f = 0; f < frames.length; f++) {
+                    assert Arrays.equals(received.get(f), frames[f]);
+                }
+                assert sync.isInverted() == inverted;
+            }
+        }
+    }
+
+    @Test
+    void flywheelsOverMissedMarker() {
+        byte[][] frames = frames(6);
+        List<byte[]> received = new ArrayList<>();
+        List<Integer> states = new ArrayList<>();
+        FrameSynchronizer[] sync = new FrameSynchronizer[1];
+        sync[0] = new FrameSynchronizer(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS,
+                8 * FRAME_LENGTH, (frame, length) -> {
+                    received.add(Arrays.copyOf(frame, length));
+                    states.add(sync[0].getState());
+                });
+        push(sync[0], stream(frames, 5, false, 3), false);
+        assert received.size() == frames.length;
+        for (int f = 0; f < frames.length; f++) {
+            assert Arrays.equals(received.get(f), frames[f]);
+            assert states.get(f) == (f == 3 ? CORRECT_SYNC_FLYWHEEL : CORRECT_SYNC_LOCK);
+        }
+    }
+
+    @Test
+    void losesLockAfterFlywheelLimit() {
+        List<byte[]> received = new ArrayList<>();
+        FrameSynchronizer sync = new FrameSynchronizer(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS,
+                8 * FRAME_LENGTH, (frame, length) -> received.add(Arrays.copyOf(frame, length)));
+        sync.setFlywheelLimit(1);
+        push(sync, stream(frames(1), 3, false, -1), false);
+        assert received.size() == 1;
+        // nothing but zeros: one frame on the flywheel, then the lock is gone
+        push(sync, new byte[4 * (FRAME_LENGTH + 4)], false);
+        assert received.size() == 2;
+        assert sync.getState() == CORRECT_SYNC_SEARCH;
+
+        byte[][] frames = frames(2);
+        push(sync, stream(frames, 11, true, -1), false);
+        assert received.size() == 4;
+        assert Arrays.equals(received.get(2), frames[0]);
+        assert Arrays.equals(received.get(3), frames[1]);
+    }
+
+    @Test
+    void findsFramesInNoisySoftSymbols() {
+        byte[][] frames = frames(4);
+        byte[] packed = stream(frames, 7, true, -1);
+        byte[] soft = new byte[8 * packed.length];
+        for (int i = 0; i < soft.length; i++) {
+            int bit = (packed[i >>> 3] << (i & 7) & 0x80) >>> 7;
+            double v = (bit != 0 ? 1.0 : -1.0) + 0.4 * RANDOM.nextGaussian();
+            soft[i] = (byte) (127.5 + 127.5 * Math.max(-1.0, Math.min(1.0, v)));
+        }
+        List<byte[]> received = new ArrayList<>();
+        FrameSynchronizer sync = new FrameSynchronizer(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS,
+                8 * FRAME_LENGTH, (frame, length) -> received.add(Arrays.copyOf(frame, length)));
+        push(sync, soft, true);
+        assert received.size() == frames.length;
+        assert sync.isInverted();
+        for (int f = 0; f < frames.length; f++) {
+            byte[] symbols = received.get(f);
+            assert symbols.length == 8 * FRAME_LENGTH;
+            int errors = 0;
+            for (int i = 0; i < symbols.length; i++) {
+                int bit = (frames[f][i >>> 3] << (i & 7) & 0x80) >>> 7;
+                errors += ((symbols[i] & 0xff) > 127 ? 1 : 0) ^ bit;
+            }
+            assert errors < symbols.length / 20;
+        }
+    }
+
+    @Test
+    void framesThatEndMidByte() {
+        // e.g. a rate 1/2, order 9 convolutional code over 20 bytes, 338 bits
+        int frameBits = 338;
+        long[][] frames = new long[3][(frameBits + 63) / 64];
+        byte[] packed = new byte[frames.length * (frameBits + 32) / 8 + 16];
+        BitWriter writer = new BitWriter(packed, packed.length);
+        writer.writeBits(RANDOM.nextLong(), 13);
+        for (long[] frame : frames) {
+            writer.writeBits(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS);
+            for (int i = 0; i < frameBits; i += 32) {
+                int n = Math.min(32, frameBits - i);
+                frame[i / 64] |= (RANDOM.nextLong() & (1L << n) - 1) << 64 - (i % 64) - n;
+                writer.writeBits(frame[i / 64] >>> 64 - (i % 64) - n, n);
+            }
+        }
+        writer.writeBits(RANDOM.nextLong(), 40);
+        writer.flushByte();
+
+        List<byte[]> hard = new ArrayList<>();
+        FrameSynchronizer sync = new FrameSynchronizer(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS,
+                frameBits, (frame, length) -> hard.add(Arrays.copyOf(frame, length)));
+        push(sync, packed, false);
+        byte[] soft = new byte[8 * packed.length];
+        for (int i = 0; i < soft.length; i++) {
+            soft[i] = (byte) ((packed[i >>> 3] << (i & 7) & 0x80) != 0 ? 255 : 0);
+        }
+        List<byte[]> symbols = new ArrayList<>();
+        sync = new FrameSynchronizer(CORRECT_SYNC_CCSDS_ASM, CORRECT_SYNC_CCSDS_ASM_BITS,
+                frameBits, (frame, length) -> symbols.add(Arrays.copyOf(frame, length)));
+        push(sync, soft, true);
+
+        assert hard.size() == frames.length && symbols.size() == frames.length;
+        for (int f = 0; f < frames.length; f++) {
+            assert hard.get(f).length == (frameBits + 7) / 8;
+            assert symbols.get(f).length == frameBits;
+            for (int i = 0; i < 8 * hard.get(f).length; i++) {
+                // past the end of the frame, the last byte is filled up with 0s
+                int bit = i < frameBits ? (int) (frames[f][i / 64] >>> 63 - i % 64 & 1) : 0;
+                assert (hard.get(f)[i >>> 3] << (i & 7) & 0x80) >>> 7 == bit;
+                if (i < frameBits) {
+                    assert (symbols.get(f)[i] & 0xff) == 255 * bit;
+                }
+            }
+        }
+    }
+}